@@ -30,6 +30,57 @@ public class Config {
     public static final double SIKULI_SIMILARITY = 0.7; // Image matching similarity (0.0 to 1.0)
     // Additional similarity levels for adaptive matching
     public static final double[] ADAPTIVE_SIMILARITY_LEVELS = {0.7, 0.6, 0.5, 0.4, 0.3};
+
+    // Keypoint matching - estimates the template scale once so the similarity ladder can stay high
+    public static final boolean FEATURE_MATCHING_ENABLED = true;
+    public static final int FEATURE_FAST_THRESHOLD = 20; // FAST intensity difference (0-255)
+    public static final int FEATURE_MAX_TEMPLATE_KEYPOINTS = 300; // Per template scale
+    public static final int FEATURE_MAX_SCENE_KEYPOINTS = 4000;
+    public static final int FEATURE_MIN_INLIERS = 6;
+    // Template scales searched in one pass (window enlarged ... window shrunk)
+    public static final double[] FEATURE_TEMPLATE_SCALES = {1.5, 1.25, 1.0, 0.8, 0.65, 0.5};
+    // A failed keypoint pass (e.g. image not on screen) is not retried for this long, doubling up to the max
+    public static final long FEATURE_RETRY_BACKOFF_MILLIS = 250;
+    public static final long FEATURE_RETRY_MAX_BACKOFF_MILLIS = 5000;
+
+    // Delay between frame captures when waiting on a custom screen source
+    public static final long FRAME_POLL_INTERVAL_MILLIS = 50;
+    
+    // Top-K multi-occurrence search
+    public static final double TOP_K_NMS_OVERLAP = 0.3; // Max intersection-over-union between reported matches
+    public static final int TOP_K_MIN_COARSE_SIZE = 8; // Smallest template side on the coarsest pyramid level
+    public static final double TOP_K_COARSE_MARGIN = 0.2; // Coarse peaks this far below the min score are still refined
+    public static final double GAME_TILE_MIN_SCORE = 0.8;
+    public static final int GAME_TILE_MAX_COUNT = 24;
+    
+    // Match event log - DETAILED, SUMMARY (one line per lookup) or OFF; override with -Droboclicker.matchEventLog
+    public static final String MATCH_EVENT_LOG_MODE = System.getProperty("roboclicker.matchEventLog", "DETAILED");
+    public static final int MATCH_EVENT_BUFFER_SIZE = 4096; // Ring buffer slots, power of two
+    
+    // Absence proof for imageExists: rule out every position with cheap score bounds before searching
+    public static final boolean ABSENCE_PROOF_ENABLED = true;
+    public static final double ABSENCE_PROOF_MARGIN = 0.05; // Assumed gap between SikuliX color scores and grayscale NCC, not a bound
+    public static final long ABSENCE_PROOF_BUDGET_MILLIS = 250; // Give up and run the tiers after this long
+    
+    // Synthetic launcher simulator used by the soak benchmark
+    public static final int SIMULATOR_WIDTH = 1280;
+    public static final int SIMULATOR_HEIGHT = 720;
+    public static final double SIMULATOR_SCALE = 1.0;
+    public static final int SIMULATOR_NOISE_AMPLITUDE = 6; // Per-channel noise (0-255)
+    public static final int SIMULATOR_JITTER_PIXELS = 12;
+    public static final long SIMULATOR_TRANSITION_DELAY_MILLIS = 30;
+    public static final int SIMULATOR_DISTRACTOR_COUNT = 25;
+    public static final long SIMULATOR_SEED = 42;
+    public static final double SIMULATOR_SIMILARITY = 0.9; // Rendered assets are pixel exact, so match strictly
+    
+    // Session farm: one worker process per session, each with its own screen source
+    public static final int FARM_WORKER_COUNT = Integer.getInteger("roboclicker.farmWorkers", 2);
+    public static final int FARM_WORKER_QUEUE_DEPTH = 2; // Scenarios queued per worker, including the running one
+    public static final boolean FARM_CPU_PINNING = true; // Pin workers to CPU sets with taskset where available
+    public static final int FARM_WORKER_HEAP_MB = 256;
+    public static final long FARM_STARTUP_TIMEOUT_SECONDS = 60;
+    // Comma-separated X displays (e.g. ":99,:100"), one per worker; empty runs synthetic launchers
+    public static final String FARM_DISPLAYS = System.getProperty("roboclicker.farmDisplays", "");
     
     // Screen configuration
     public static final int SCREEN_WIDTH = 1920;
@@ -0,0 +1,71 @@
+package com.roboclicker.farm;
+
+/**
+ * Line-based protocol between the {@link SessionFarm} coordinator and its {@link FarmWorker}s.
+ * Commands go to the worker's standard input; replies come back on its standard output,
+ * prefixed so that anything else a library prints there is ignored.
+ * <pre>
+ * coordinator -&gt; worker   RUN &lt;id&gt; &lt;scenario&gt;  |  REPORT  |  STOP
+ * worker -&gt; coordinator   @farm READY &lt;heapBytes&gt;
+ *                          @farm DONE &lt;id&gt; &lt;success&gt; &lt;flowNanos&gt; &lt;stepNanos,stepNanos,...|-&gt;
+ *                          @farm METRICS &lt;heapBytes&gt; &lt;missedClicks&gt;
+ * </pre>
+ */
+final class FarmProtocol {
+
+    static final String PREFIX = "@farm ";
+    static final String RUN = "RUN";
+    static final String REPORT = "REPORT";
+    static final String STOP = "STOP";
+    static final String READY = "READY";
+    static final String DONE = "DONE";
+    static final String METRICS = "METRICS";
+
+    private FarmProtocol() {
+    }
+
+    static String run(int scenarioId, FarmScenario scenario) {
+        return RUN + " " + scenarioId + " " + scenario.name();
+    }
+
+    static String ready(long heapBytes) {
+        return PREFIX + READY + " " + heapBytes;
+    }
+
+    static String done(int scenarioId, boolean success, long flowNanos, long[] stepNanos) {
+        StringBuilder steps = new StringBuilder();
+        for (long step : stepNanos) {
+            steps.append(steps.length() == 0 ? "" : ",").append(step);
+        }
+        return PREFIX + DONE + " " + scenarioId + " " + success + " " + flowNanos + " "
+            + (steps.length() == 0 ? "-" : steps);
+    }
+
+    static String metrics(long heapBytes, long missedClicks) {
+        return PREFIX + METRICS + " " + heapBytes + " " + missedClicks;
+    }
+
+    /**
+     * Split a worker reply into its fields.
+     * @param line Line read from the worker's standard output
+     * @return Message type followed by its arguments, or null if the line is not a protocol message
+     */
+    static String[] parseReply(String line) {
+        if (!line.startsWith(PREFIX)) {
+            return null;
+        }
+        return line.substring(PREFIX.length()).trim().split(" ");
+    }
+
+    static long[] parseSteps(String field) {
+        if ("-".equals(field)) {
+            return new long[0];
+        }
+        String[] parts = field.split(",");
+        long[] steps = new long[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            steps[i] = Long.parseLong(parts[i]);
+        }
+        return steps;
+    }
+}
@@ -0,0 +1,49 @@
+package com.roboclicker.farm;
+
+import com.roboclicker.sim.SoakReport;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Results of a {@link SessionFarm} run: one report per worker and their aggregate.
+ */
+public final class FarmReport {
+
+    private final SoakReport total;
+    private final List<SoakReport> workerReports;
+    private final List<String> cpuSets;
+
+    FarmReport(SoakReport total, List<SoakReport> workerReports, List<String> cpuSets) {
+        this.total = total;
+        this.workerReports = Collections.unmodifiableList(new ArrayList<>(workerReports));
+        this.cpuSets = Collections.unmodifiableList(new ArrayList<>(cpuSets));
+    }
+
+    /**
+     * @return All scenarios of all workers; throughput is for the whole farm
+     */
+    public SoakReport getTotal() {
+        return total;
+    }
+
+    /**
+     * @return Per-worker reports, indexed by worker number
+     */
+    public List<SoakReport> getWorkerReports() {
+        return workerReports;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(String.format("Farm: %d workers%n%s", workerReports.size(), total));
+        for (int i = 0; i < workerReports.size(); i++) {
+            SoakReport worker = workerReports.get(i);
+            text.append(String.format("%n  worker %d (cpus %s): %d scenarios, %d failed, %.2f/s, step p50=%.1f ms p95=%.1f ms",
+                i, cpuSets.get(i), worker.getFlows(), worker.getFailedFlows(), worker.getThroughputPerSecond(),
+                worker.getStepLatencyPercentile(50) / 1e6, worker.getStepLatencyPercentile(95) / 1e6));
+        }
+        return text.toString();
+    }
+}
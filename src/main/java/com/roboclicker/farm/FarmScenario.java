@@ -0,0 +1,19 @@
+package com.roboclicker.farm;
+
+/**
+ * MainPage scenario handed to a farm worker. The worker resets its launcher and runs the
+ * MainPage flow up to and including the named step.
+ */
+public enum FarmScenario {
+    GAMES_TAB,
+    VANGUARD_PAGE,
+    WOW_TAB,
+    CONFIGURATION_GEAR;
+
+    /**
+     * @return Number of MainPage steps the scenario runs
+     */
+    public int getStepCount() {
+        return ordinal() + 1;
+    }
+}
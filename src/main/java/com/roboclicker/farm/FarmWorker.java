@@ -0,0 +1,151 @@
+package com.roboclicker.farm;
+
+import com.roboclicker.config.Config;
+import com.roboclicker.pages.MainPage;
+import com.roboclicker.sim.LauncherSimulator;
+import com.roboclicker.sim.SimulatorSettings;
+import com.roboclicker.util.ImageMatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * One session of the {@link SessionFarm}: a single {@code ImageMatcher}/{@code MainPage} pair bound
+ * to its own screen source. Runs scenarios received from the coordinator one at a time and
+ * reports their latencies back. Started by the coordinator as
+ * {@code java com.roboclicker.farm.FarmWorker <workerId> [synthetic|display]}.
+ */
+public class FarmWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(FarmWorker.class);
+
+    private final int workerId;
+    private final LauncherSimulator simulator;
+    private final ImageMatcher imageMatcher;
+    private final MainPage mainPage;
+    private final List<BooleanSupplier> flow;
+
+    /**
+     * Constructor for a worker driving a synthetic launcher.
+     * @param workerId Worker number, used for logging
+     * @param settings Settings of the worker's simulated launcher
+     */
+    public FarmWorker(int workerId, SimulatorSettings settings) {
+        this(workerId, new LauncherSimulator(settings));
+    }
+
+    private FarmWorker(int workerId, LauncherSimulator simulator) {
+        this(workerId, simulator, new ImageMatcher(Config.SIMULATOR_SIMILARITY, simulator, simulator));
+    }
+
+    /**
+     * Constructor for a worker driving the launcher on its display.
+     * @param workerId Worker number, used for logging
+     */
+    public FarmWorker(int workerId) {
+        this(workerId, null, new ImageMatcher(Config.SIKULI_SIMILARITY));
+    }
+
+    private FarmWorker(int workerId, LauncherSimulator simulator, ImageMatcher imageMatcher) {
+        this.workerId = workerId;
+        this.simulator = simulator;
+        this.imageMatcher = imageMatcher;
+        this.mainPage = new MainPage(imageMatcher);
+        this.flow = Arrays.asList(
+            mainPage::clickGamesTab,
+            mainPage::openVanguardPage,
+            mainPage::openWoWTab,
+            mainPage::openConfigurationGear);
+    }
+
+    /**
+     * Serve commands until STOP or the end of the input.
+     * @param in Commands from the coordinator
+     * @param out Replies to the coordinator
+     * @throws IOException If reading the commands fails
+     */
+    public void serve(BufferedReader in, PrintStream out) throws IOException {
+        reply(out, FarmProtocol.ready(usedHeapAfterGc()));
+        String line;
+        while ((line = in.readLine()) != null) {
+            String[] fields = line.trim().split(" ");
+            if (FarmProtocol.RUN.equals(fields[0]) && fields.length == 3) {
+                int scenarioId = Integer.parseInt(fields[1]);
+                reply(out, run(scenarioId, FarmScenario.valueOf(fields[2])));
+            } else if (FarmProtocol.REPORT.equals(fields[0])) {
+                long missedClicks = simulator == null ? 0 : simulator.getMissedClickCount();
+                reply(out, FarmProtocol.metrics(usedHeapAfterGc(), missedClicks));
+            } else if (FarmProtocol.STOP.equals(fields[0])) {
+                break;
+            } else {
+                logger.warn("Worker {} ignoring unknown command: {}", workerId, line);
+            }
+        }
+        imageMatcher.close();
+        logger.info("Worker {} stopped", workerId);
+    }
+
+    /**
+     * Run one scenario from a fresh launcher state.
+     * @return DONE reply for the coordinator
+     */
+    private String run(int scenarioId, FarmScenario scenario) {
+        if (simulator != null) {
+            simulator.reset();
+        }
+        long start = System.nanoTime();
+        long[] steps = new long[scenario.getStepCount()];
+        int completed = 0;
+        boolean success = true;
+        for (; completed < steps.length && success; completed++) {
+            long stepStart = System.nanoTime();
+            success = flow.get(completed).getAsBoolean();
+            steps[completed] = System.nanoTime() - stepStart;
+        }
+        success = mainPage.awaitPendingInput() && success;
+        if (success && simulator != null) {
+            success = simulator.awaitState(steps.length, Config.TIMEOUT_SECONDS * 1000L);
+        }
+        if (!success) {
+            logger.warn("Worker {} failed scenario {} ({}) after {} steps", workerId, scenarioId, scenario, completed);
+        }
+        return FarmProtocol.done(scenarioId, success, System.nanoTime() - start, Arrays.copyOf(steps, completed));
+    }
+
+    private static void reply(PrintStream out, String message) {
+        out.println(message);
+        out.flush();
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Entry point of a worker process.
+     * @param args Worker number, then {@code synthetic} (default) or {@code display}
+     */
+    public static void main(String[] args) throws IOException {
+        int workerId = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        boolean display = args.length > 1 && "display".equals(args[1]);
+        logger.info("Worker {} starting on {}", workerId, display ? "display " + System.getenv("DISPLAY") : "a synthetic launcher");
+
+        SimulatorSettings defaults = SimulatorSettings.defaults();
+        FarmWorker worker = display ? new FarmWorker(workerId) : new FarmWorker(workerId, new SimulatorSettings(
+            defaults.getWidth(), defaults.getHeight(), defaults.getScale(), defaults.getNoiseAmplitude(),
+            defaults.getJitterPixels(), defaults.getTransitionDelayMillis(), defaults.getDistractorCount(),
+            defaults.getSeed() + workerId));
+        worker.serve(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)), System.out);
+        System.exit(0);
+    }
+}
@@ -0,0 +1,400 @@
+package com.roboclicker.farm;
+
+import com.roboclicker.config.Config;
+import com.roboclicker.sim.SoakReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coordinator of a farm of {@link FarmWorker} processes, each running one {@code MainPage} session
+ * against its own screen source: a synthetic launcher, or an X display from {@link Config#FARM_DISPLAYS}.
+ * Where {@code taskset} is available, workers are pinned to CPU sets cut from the CPUs this process
+ * may run on ({@code Cpus_allowed_list} in {@code /proc/self/status}, which honours cgroup cpusets
+ * and affinity masks). The sets are disjoint as long as there are at least as many allowed CPUs as
+ * workers; with more workers, each gets one CPU and they share them round robin. Scenarios are sent
+ * over the workers' standard input and go to the worker expected to finish them first, judged by
+ * its measured step latency and queued work. Per-worker metrics are merged into one {@link FarmReport}.
+ */
+public class SessionFarm implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionFarm.class);
+
+    private final List<WorkerProcess> workers = new ArrayList<>();
+    private final BlockingQueue<WorkerProcess.Event> events = new LinkedBlockingQueue<>();
+
+    /**
+     * Constructor that starts the workers and waits until all of them are ready.
+     * @param workerCount Number of worker processes
+     * @throws IllegalStateException If a worker cannot be started or does not become ready in time
+     */
+    public SessionFarm(int workerCount) {
+        List<String> displays = parseDisplays(Config.FARM_DISPLAYS);
+        int processors = Runtime.getRuntime().availableProcessors();
+        boolean pin = Config.FARM_CPU_PINNING && tasksetAvailable();
+        if (Config.FARM_CPU_PINNING && !pin) {
+            logger.warn("taskset not available - workers will not be pinned to CPU sets");
+        }
+        List<List<Integer>> cpuSets = null;
+        if (pin) {
+            List<Integer> allowed = allowedCpus(processors);
+            if (allowed.size() < workerCount) {
+                logger.warn("{} workers on {} allowed CPUs - workers will share CPUs", workerCount, allowed.size());
+            }
+            cpuSets = partitionCpus(allowed, workerCount);
+        }
+
+        try {
+            for (int i = 0; i < workerCount; i++) {
+                String display = displays.isEmpty() ? null : displays.get(i % displays.size());
+                String cpuSet = pin ? formatCpuList(cpuSets.get(i)) : null;
+                int workerProcessors = pin ? cpuSets.get(i).size() : Math.max(1, processors / workerCount);
+                workers.add(WorkerProcess.start(i, display, cpuSet, workerProcessors, events));
+            }
+            awaitReady();
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw new IllegalStateException("Failed to start session farm: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Run scenarios across the workers until every one has finished or no worker is left.
+     * Scenarios of a worker that dies are handed to the others; scenarios that never finish
+     * count as failed.
+     * @param scenarios Scenarios to run
+     * @return Report of the run
+     */
+    public FarmReport run(List<FarmScenario> scenarios) {
+        Deque<Integer> pending = new ArrayDeque<>();
+        for (int i = 0; i < scenarios.size(); i++) {
+            pending.add(i);
+        }
+        int finished = 0;
+        long start = System.nanoTime();
+        // Generous upper bound for one scenario, so a hung worker cannot stall the farm forever
+        long eventTimeoutMillis = Config.TIMEOUT_SECONDS * 1000L * (FarmScenario.values().length + 1);
+
+        while (finished < scenarios.size()) {
+            dispatch(pending, scenarios);
+            WorkerProcess.Event event = nextEvent(eventTimeoutMillis);
+            if (event == null) {
+                logger.error("No worker reported for {} ms, giving up on {} scenarios",
+                    eventTimeoutMillis, scenarios.size() - finished);
+                break;
+            }
+            if (event.type == WorkerProcess.Event.Type.DONE) {
+                event.worker.complete(event);
+                finished++;
+            } else if (event.type == WorkerProcess.Event.Type.EXITED && event.worker.isAlive()) {
+                Map<Integer, FarmScenario> unfinished = event.worker.markExited();
+                logger.error("Worker {} exited, requeueing {} scenarios", event.worker.getId(), unfinished.size());
+                for (Integer scenarioId : unfinished.keySet()) {
+                    pending.addFirst(scenarioId);
+                }
+                if (aliveWorkers() == 0) {
+                    logger.error("No workers left, giving up on {} scenarios", scenarios.size() - finished);
+                    break;
+                }
+            }
+        }
+        long duration = System.nanoTime() - start;
+
+        collectMetrics();
+        return report(duration, scenarios.size() - finished);
+    }
+
+    /**
+     * Hand pending scenarios to workers while any has room in its queue.
+     */
+    private void dispatch(Deque<Integer> pending, List<FarmScenario> scenarios) {
+        while (!pending.isEmpty()) {
+            FarmScenario scenario = scenarios.get(pending.peekFirst());
+            WorkerProcess best = null;
+            double bestEstimate = Double.MAX_VALUE;
+            for (WorkerProcess worker : workers) {
+                if (!worker.isAlive() || worker.getInFlightCount() >= Config.FARM_WORKER_QUEUE_DEPTH) {
+                    continue;
+                }
+                double estimate = worker.estimateCompletionNanos(scenario);
+                if (best == null || estimate < bestEstimate
+                        || (estimate == bestEstimate && worker.getInFlightCount() < best.getInFlightCount())) {
+                    best = worker;
+                    bestEstimate = estimate;
+                }
+            }
+            if (best == null) {
+                return;
+            }
+            best.send(pending.pollFirst(), scenario);
+        }
+    }
+
+    private void awaitReady() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(Config.FARM_STARTUP_TIMEOUT_SECONDS);
+        int ready = 0;
+        while (ready < workers.size()) {
+            WorkerProcess.Event event = nextEvent(TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+            if (event == null) {
+                throw new IllegalStateException(ready + " of " + workers.size() + " workers ready after "
+                    + Config.FARM_STARTUP_TIMEOUT_SECONDS + " seconds");
+            }
+            if (event.type == WorkerProcess.Event.Type.EXITED) {
+                throw new IllegalStateException("Worker " + event.worker.getId() + " exited during startup");
+            }
+            if (event.type == WorkerProcess.Event.Type.READY) {
+                event.worker.recordReady(event);
+                ready++;
+            }
+        }
+        logger.info("Session farm ready with {} workers", workers.size());
+    }
+
+    /**
+     * Ask every live worker for its heap and click metrics and wait for the replies.
+     */
+    private void collectMetrics() {
+        int expected = 0;
+        for (WorkerProcess worker : workers) {
+            if (worker.isAlive()) {
+                worker.requestMetrics();
+                expected++;
+            }
+        }
+        while (expected > 0) {
+            WorkerProcess.Event event = nextEvent(Config.TIMEOUT_SECONDS * 1000L);
+            if (event == null) {
+                logger.warn("{} workers did not report metrics", expected);
+                return;
+            }
+            if (event.type == WorkerProcess.Event.Type.METRICS) {
+                event.worker.recordMetrics(event);
+                expected--;
+            } else if (event.type == WorkerProcess.Event.Type.EXITED && event.worker.isAlive()) {
+                event.worker.markExited();
+                expected--;
+            }
+        }
+    }
+
+    private FarmReport report(long durationNanos, int abandoned) {
+        List<SoakReport> workerReports = new ArrayList<>();
+        List<String> cpuSets = new ArrayList<>();
+        List<Long> allSteps = new ArrayList<>();
+        List<Long> allFlows = new ArrayList<>();
+        int flows = abandoned;
+        int failed = abandoned;
+        long heapBefore = 0;
+        long heapAfter = 0;
+        long missedClicks = 0;
+        for (WorkerProcess worker : workers) {
+            workerReports.add(new SoakReport(worker.getCompleted(), worker.getFailed(), durationNanos,
+                toArray(worker.getStepLatencies()), toArray(worker.getFlowLatencies()),
+                worker.getHeapBeforeBytes(), worker.getHeapAfterBytes(), worker.getMissedClicks()));
+            cpuSets.add(worker.getCpuSet() == null ? "any" : worker.getCpuSet());
+            allSteps.addAll(worker.getStepLatencies());
+            allFlows.addAll(worker.getFlowLatencies());
+            flows += worker.getCompleted();
+            failed += worker.getFailed();
+            heapBefore += worker.getHeapBeforeBytes();
+            heapAfter += worker.getHeapAfterBytes();
+            missedClicks += worker.getMissedClicks();
+        }
+        SoakReport total = new SoakReport(flows, failed, durationNanos, toArray(allSteps), toArray(allFlows),
+            heapBefore, heapAfter, missedClicks);
+        return new FarmReport(total, workerReports, cpuSets);
+    }
+
+    private WorkerProcess.Event nextEvent(long timeoutMillis) {
+        try {
+            return events.poll(Math.max(0, timeoutMillis), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private int aliveWorkers() {
+        int alive = 0;
+        for (WorkerProcess worker : workers) {
+            if (worker.isAlive()) {
+                alive++;
+            }
+        }
+        return alive;
+    }
+
+    /**
+     * Stop all workers.
+     */
+    @Override
+    public void close() {
+        for (WorkerProcess worker : workers) {
+            worker.stop(Config.TIMEOUT_SECONDS * 1000L);
+        }
+        workers.clear();
+    }
+
+    /**
+     * Get the CPUs this process may run on, from {@code Cpus_allowed_list} in {@code /proc/self/status}.
+     * @param processors Number of processors to fall back to, numbered from 0
+     * @return Allowed CPU ids in ascending order
+     */
+    private static List<Integer> allowedCpus(int processors) {
+        try (BufferedReader reader = new BufferedReader(new FileReader("/proc/self/status"))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("Cpus_allowed_list:")) {
+                    List<Integer> cpus = parseCpuList(line.substring(line.indexOf(':') + 1));
+                    if (!cpus.isEmpty()) {
+                        return cpus;
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            logger.warn("Could not read the allowed CPUs, assuming 0-{}: {}", processors - 1, e.getMessage());
+        }
+        List<Integer> cpus = new ArrayList<>();
+        for (int cpu = 0; cpu < processors; cpu++) {
+            cpus.add(cpu);
+        }
+        return cpus;
+    }
+
+    /**
+     * Parse a kernel CPU list such as {@code 0-3,8-11}.
+     * @param list Comma-separated CPU ids and ranges
+     * @return CPU ids in the order listed
+     * @throws IllegalArgumentException If the list is malformed
+     */
+    public static List<Integer> parseCpuList(String list) {
+        List<Integer> cpus = new ArrayList<>();
+        for (String part : list.split(",")) {
+            part = part.trim();
+            if (part.isEmpty()) {
+                continue;
+            }
+            try {
+                int dash = part.indexOf('-');
+                int first = Integer.parseInt(dash < 0 ? part : part.substring(0, dash));
+                int last = dash < 0 ? first : Integer.parseInt(part.substring(dash + 1));
+                if (first < 0 || last < first) {
+                    throw new IllegalArgumentException("Invalid CPU range: " + part);
+                }
+                for (int cpu = first; cpu <= last; cpu++) {
+                    cpus.add(cpu);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid CPU list: " + list, e);
+            }
+        }
+        return cpus;
+    }
+
+    /**
+     * Split the allowed CPUs into one set per worker. With at least as many CPUs as workers the
+     * sets are disjoint, consecutive blocks whose sizes differ by at most one; with fewer, each
+     * worker gets a single CPU and the CPUs are reused round robin.
+     * @param cpus Allowed CPU ids
+     * @param workerCount Number of workers
+     * @return CPU set of each worker
+     */
+    public static List<List<Integer>> partitionCpus(List<Integer> cpus, int workerCount) {
+        List<List<Integer>> sets = new ArrayList<>();
+        if (cpus.size() < workerCount) {
+            for (int worker = 0; worker < workerCount; worker++) {
+                sets.add(Collections.singletonList(cpus.get(worker % cpus.size())));
+            }
+            return sets;
+        }
+        int first = 0;
+        for (int worker = 0; worker < workerCount; worker++) {
+            int size = cpus.size() / workerCount + (worker < cpus.size() % workerCount ? 1 : 0);
+            sets.add(new ArrayList<>(cpus.subList(first, first + size)));
+            first += size;
+        }
+        return sets;
+    }
+
+    /**
+     * Format CPU ids as a list for {@code taskset -c}, collapsing runs into ranges.
+     * @param cpus CPU ids in ascending order
+     * @return CPU list, e.g. "2-3,6"
+     */
+    public static String formatCpuList(List<Integer> cpus) {
+        StringBuilder list = new StringBuilder();
+        for (int i = 0; i < cpus.size(); i++) {
+            int first = cpus.get(i);
+            while (i + 1 < cpus.size() && cpus.get(i + 1) == cpus.get(i) + 1) {
+                i++;
+            }
+            if (list.length() > 0) {
+                list.append(',');
+            }
+            list.append(first == cpus.get(i) ? String.valueOf(first) : first + "-" + cpus.get(i));
+        }
+        return list.toString();
+    }
+
+    private static boolean tasksetAvailable() {
+        String path = System.getenv("PATH");
+        if (path == null || !System.getProperty("os.name").toLowerCase().contains("linux")) {
+            return false;
+        }
+        for (String dir : path.split(File.pathSeparator)) {
+            if (new File(dir, "taskset").canExecute()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> parseDisplays(String displays) {
+        List<String> result = new ArrayList<>();
+        for (String display : displays.split(",")) {
+            if (!display.trim().isEmpty()) {
+                result.add(display.trim());
+            }
+        }
+        return result;
+    }
+
+    private static long[] toArray(List<Long> values) {
+        long[] array = new long[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * Entry point for running a farm from the command line.
+     * @param args Optional number of workers (default: {@link Config#FARM_WORKER_COUNT})
+     *             and number of scenarios (default: 100), cycling through all {@link FarmScenario}s
+     */
+    public static void main(String[] args) {
+        int workerCount = args.length > 0 ? Integer.parseInt(args[0]) : Config.FARM_WORKER_COUNT;
+        int scenarioCount = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        List<FarmScenario> scenarios = new ArrayList<>();
+        for (int i = 0; i < scenarioCount; i++) {
+            scenarios.add(FarmScenario.values()[i % FarmScenario.values().length]);
+        }
+        logger.info("Running {} scenarios on {} workers", scenarioCount, workerCount);
+        try (SessionFarm farm = new SessionFarm(workerCount)) {
+            logger.info("{}", farm.run(scenarios));
+        }
+    }
+}
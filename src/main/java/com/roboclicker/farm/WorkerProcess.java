@@ -0,0 +1,290 @@
+package com.roboclicker.farm;
+
+import com.roboclicker.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coordinator-side handle of one {@link FarmWorker} process.
+ * Reader threads turn the worker's replies into {@link Event}s on the coordinator's queue;
+ * all other state is only touched by the coordinator thread.
+ */
+final class WorkerProcess {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkerProcess.class);
+
+    // Weight of the newest sample in the step latency estimate
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    /**
+     * Reply received from a worker, or notice that its process ended.
+     */
+    static final class Event {
+        enum Type { READY, DONE, METRICS, EXITED }
+
+        final WorkerProcess worker;
+        final Type type;
+        final String[] fields;
+
+        Event(WorkerProcess worker, Type type, String[] fields) {
+            this.worker = worker;
+            this.type = type;
+            this.fields = fields;
+        }
+    }
+
+    private final int id;
+    private final String cpuSet;
+    private final Process process;
+    private final PrintWriter commands;
+    // Scenarios sent but not finished, by scenario id
+    private final Map<Integer, FarmScenario> inFlight = new LinkedHashMap<>();
+    private final List<Long> stepLatencies = new ArrayList<>();
+    private final List<Long> flowLatencies = new ArrayList<>();
+    private double stepLatencyEstimate = -1;
+    private int completed;
+    private int failed;
+    private long heapBeforeBytes;
+    private long heapAfterBytes;
+    private long missedClicks;
+    private boolean alive = true;
+
+    private WorkerProcess(int id, String cpuSet, Process process) {
+        this.id = id;
+        this.cpuSet = cpuSet;
+        this.process = process;
+        this.commands = new PrintWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8), true);
+    }
+
+    /**
+     * Start a worker process.
+     * @param id Worker number
+     * @param display X display for the worker, or null for a synthetic launcher
+     * @param cpuSet CPU list for taskset (e.g. "2-3"), or null to leave the worker unpinned
+     * @param processors Number of processors the worker JVM should size itself for
+     * @param events Queue receiving the worker's events
+     * @return Handle of the started worker
+     * @throws IOException If the process cannot be started
+     */
+    static WorkerProcess start(int id, String display, String cpuSet, int processors,
+                               BlockingQueue<Event> events) throws IOException {
+        List<String> command = new ArrayList<>();
+        if (cpuSet != null) {
+            command.add("taskset");
+            command.add("-c");
+            command.add(cpuSet);
+        }
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.add("-Xmx" + Config.FARM_WORKER_HEAP_MB + "m");
+        command.add("-XX:ActiveProcessorCount=" + processors);
+        command.add("-Droboclicker.matchEventLog=SUMMARY");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(FarmWorker.class.getName());
+        command.add(String.valueOf(id));
+        command.add(display == null ? "synthetic" : "display");
+
+        ProcessBuilder builder = new ProcessBuilder(command).directory(new File(System.getProperty("user.dir")));
+        if (display != null) {
+            builder.environment().put("DISPLAY", display);
+        }
+        WorkerProcess worker = new WorkerProcess(id, cpuSet, builder.start());
+        worker.startReaders(events);
+        logger.info("Started worker {} (pid {}, cpus {}, {})", id, worker.process.pid(),
+            cpuSet == null ? "any" : cpuSet, display == null ? "synthetic launcher" : "display " + display);
+        return worker;
+    }
+
+    private void startReaders(BlockingQueue<Event> events) {
+        Thread replies = new Thread(() -> {
+            try (BufferedReader reader = reader(process.getInputStream())) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = FarmProtocol.parseReply(line);
+                    if (fields == null) {
+                        logger.debug("worker {}: {}", id, line);
+                        continue;
+                    }
+                    try {
+                        Event.Type type = Event.Type.valueOf(fields[0]);
+                        events.add(new Event(this, type, fields));
+                    } catch (IllegalArgumentException e) {
+                        logger.warn("Unknown reply from worker {}: {}", id, line);
+                    }
+                }
+            } catch (IOException e) {
+                logger.warn("Lost connection to worker {}: {}", id, e.getMessage());
+            }
+            events.add(new Event(this, Event.Type.EXITED, new String[0]));
+        }, "farm-worker-" + id);
+        replies.setDaemon(true);
+        replies.start();
+
+        // Relay the worker's log so it does not block on a full pipe
+        Thread log = new Thread(() -> {
+            try (BufferedReader reader = reader(process.getErrorStream())) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    logger.info("worker {}: {}", id, line);
+                }
+            } catch (IOException e) {
+                logger.debug("Log of worker {} closed: {}", id, e.getMessage());
+            }
+        }, "farm-worker-" + id + "-log");
+        log.setDaemon(true);
+        log.start();
+    }
+
+    private static BufferedReader reader(InputStream stream) {
+        return new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Send a scenario to the worker.
+     * @param scenarioId Scenario number, echoed back in the DONE reply
+     * @param scenario Scenario to run
+     */
+    void send(int scenarioId, FarmScenario scenario) {
+        inFlight.put(scenarioId, scenario);
+        commands.println(FarmProtocol.run(scenarioId, scenario));
+    }
+
+    void requestMetrics() {
+        commands.println(FarmProtocol.REPORT);
+    }
+
+    /**
+     * Estimate how long the worker would take to finish everything queued on it plus one more scenario.
+     * Workers without a measured latency yet estimate zero, so each gets work early on.
+     * @param next Scenario that would be added
+     * @return Estimated time in nanoseconds
+     */
+    double estimateCompletionNanos(FarmScenario next) {
+        if (stepLatencyEstimate < 0) {
+            return 0;
+        }
+        int steps = next.getStepCount();
+        for (FarmScenario queued : inFlight.values()) {
+            steps += queued.getStepCount();
+        }
+        return steps * stepLatencyEstimate;
+    }
+
+    /**
+     * Record a DONE reply.
+     * @return Id of the finished scenario
+     */
+    int complete(Event event) {
+        int scenarioId = Integer.parseInt(event.fields[1]);
+        boolean success = Boolean.parseBoolean(event.fields[2]);
+        inFlight.remove(scenarioId);
+        flowLatencies.add(Long.parseLong(event.fields[3]));
+        for (long step : FarmProtocol.parseSteps(event.fields[4])) {
+            stepLatencies.add(step);
+            stepLatencyEstimate = stepLatencyEstimate < 0 ? step
+                : stepLatencyEstimate + LATENCY_SMOOTHING * (step - stepLatencyEstimate);
+        }
+        completed++;
+        if (!success) {
+            failed++;
+        }
+        return scenarioId;
+    }
+
+    void recordReady(Event event) {
+        heapBeforeBytes = Long.parseLong(event.fields[1]);
+    }
+
+    void recordMetrics(Event event) {
+        heapAfterBytes = Long.parseLong(event.fields[1]);
+        missedClicks = Long.parseLong(event.fields[2]);
+    }
+
+    /**
+     * Mark the worker dead.
+     * @return Scenarios it had not finished, to be handed to other workers
+     */
+    Map<Integer, FarmScenario> markExited() {
+        alive = false;
+        Map<Integer, FarmScenario> unfinished = new LinkedHashMap<>(inFlight);
+        inFlight.clear();
+        return unfinished;
+    }
+
+    /**
+     * Ask the worker to stop and wait for it to exit, killing it after the timeout.
+     * @param timeoutMillis Maximum time to wait
+     */
+    void stop(long timeoutMillis) {
+        commands.println(FarmProtocol.STOP);
+        commands.close();
+        try {
+            if (!process.waitFor(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                logger.warn("Worker {} did not stop in time, killing it", id);
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroyForcibly();
+        }
+    }
+
+    int getId() {
+        return id;
+    }
+
+    String getCpuSet() {
+        return cpuSet;
+    }
+
+    boolean isAlive() {
+        return alive;
+    }
+
+    int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    int getCompleted() {
+        return completed;
+    }
+
+    int getFailed() {
+        return failed;
+    }
+
+    List<Long> getStepLatencies() {
+        return stepLatencies;
+    }
+
+    List<Long> getFlowLatencies() {
+        return flowLatencies;
+    }
+
+    long getHeapBeforeBytes() {
+        return heapBeforeBytes;
+    }
+
+    long getHeapAfterBytes() {
+        return heapAfterBytes;
+    }
+
+    long getMissedClicks() {
+        return missedClicks;
+    }
+}
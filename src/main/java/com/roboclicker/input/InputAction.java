@@ -0,0 +1,66 @@
+package com.roboclicker.input;
+
+/**
+ * Immutable mouse action queued for delivery by the {@link InputDispatcher}.
+ */
+public final class InputAction {
+
+    /**
+     * Kind of mouse action.
+     */
+    public enum Type {
+        CLICK,
+        DOUBLE_CLICK,
+        MOVE
+    }
+
+    private final Type type;
+    private final int x;
+    private final int y;
+    private final long enqueuedAtNanos;
+
+    /**
+     * Constructor for an action enqueued now.
+     * @param type Kind of action
+     * @param x Target X coordinate on screen
+     * @param y Target Y coordinate on screen
+     */
+    public InputAction(Type type, int x, int y) {
+        this(type, x, y, System.nanoTime());
+    }
+
+    /**
+     * Constructor with an explicit enqueue timestamp.
+     * @param type Kind of action
+     * @param x Target X coordinate on screen
+     * @param y Target Y coordinate on screen
+     * @param enqueuedAtNanos {@link System#nanoTime()} at which the action was requested
+     */
+    public InputAction(Type type, int x, int y, long enqueuedAtNanos) {
+        this.type = type;
+        this.x = x;
+        this.y = y;
+        this.enqueuedAtNanos = enqueuedAtNanos;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public long getEnqueuedAtNanos() {
+        return enqueuedAtNanos;
+    }
+
+    @Override
+    public String toString() {
+        return type + "(" + x + ", " + y + ")";
+    }
+}
@@ -0,0 +1,200 @@
+package com.roboclicker.input;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delivers mouse actions on a dedicated thread so callers can keep searching
+ * while input is still being performed. Actions are delivered in submission order;
+ * consecutive pending moves are coalesced into the latest one.
+ */
+public class InputDispatcher implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(InputDispatcher.class);
+
+    private final InputSink sink;
+    private final Thread worker;
+    private final Deque<Pending> queue = new ArrayDeque<>();
+    private boolean inFlight;
+    private boolean closed;
+    private long submittedCount;
+    private long deliveredCount;
+    private long coalescedCount;
+
+    /**
+     * Constructor that starts the dispatcher thread.
+     * @param sink Destination for the actions
+     */
+    public InputDispatcher(InputSink sink) {
+        this.sink = sink;
+        this.worker = new Thread(this::run, "input-dispatcher");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Queue a click.
+     * @param x Target X coordinate
+     * @param y Target Y coordinate
+     * @return Future completed once the click was delivered
+     */
+    public CompletableFuture<Void> click(int x, int y) {
+        return submit(new InputAction(InputAction.Type.CLICK, x, y));
+    }
+
+    /**
+     * Queue a double-click.
+     * @param x Target X coordinate
+     * @param y Target Y coordinate
+     * @return Future completed once the double-click was delivered
+     */
+    public CompletableFuture<Void> doubleClick(int x, int y) {
+        return submit(new InputAction(InputAction.Type.DOUBLE_CLICK, x, y));
+    }
+
+    /**
+     * Queue a mouse move. Replaces a move still waiting at the tail of the queue.
+     * @param x Target X coordinate
+     * @param y Target Y coordinate
+     * @return Future completed once the mouse reached this (or a later) position
+     */
+    public CompletableFuture<Void> move(int x, int y) {
+        return submit(new InputAction(InputAction.Type.MOVE, x, y));
+    }
+
+    /**
+     * Queue an action.
+     * @param action Action to deliver
+     * @return Future completed once the action was delivered
+     */
+    public synchronized CompletableFuture<Void> submit(InputAction action) {
+        if (closed) {
+            CompletableFuture<Void> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(new IllegalStateException("Input dispatcher is closed"));
+            return rejected;
+        }
+        submittedCount++;
+        Pending tail = queue.peekLast();
+        if (action.getType() == InputAction.Type.MOVE && tail != null
+                && tail.action.getType() == InputAction.Type.MOVE) {
+            // Only the final pointer position matters; keep the original enqueue time for latency
+            tail.action = new InputAction(InputAction.Type.MOVE, action.getX(), action.getY(),
+                tail.action.getEnqueuedAtNanos());
+            coalescedCount++;
+            return tail.future;
+        }
+        Pending pending = new Pending(action);
+        queue.addLast(pending);
+        notifyAll();
+        return pending.future;
+    }
+
+    /**
+     * Wait until every queued action has been delivered.
+     * @param timeoutMillis Maximum time to wait
+     * @return true if the queue drained in time, false otherwise
+     */
+    public synchronized boolean awaitIdle(long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        try {
+            while (!queue.isEmpty() || inFlight) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    return false;
+                }
+                wait(remaining);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Waiting for input dispatch interrupted");
+            return false;
+        }
+    }
+
+    public synchronized long getSubmittedCount() {
+        return submittedCount;
+    }
+
+    public synchronized long getDeliveredCount() {
+        return deliveredCount;
+    }
+
+    public synchronized long getCoalescedCount() {
+        return coalescedCount;
+    }
+
+    /**
+     * Stop accepting actions, deliver those already queued and stop the thread.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Closing input dispatcher interrupted");
+        }
+    }
+
+    private void run() {
+        while (true) {
+            Pending next;
+            synchronized (this) {
+                while (queue.isEmpty() && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        logger.debug("Input dispatcher interrupted");
+                    }
+                }
+                if (queue.isEmpty()) {
+                    return;
+                }
+                next = queue.pollFirst();
+                inFlight = true;
+            }
+
+            Throwable failure = null;
+            try {
+                sink.deliver(next.action);
+                logger.debug("Delivered input action: {}", next.action);
+            } catch (Exception e) {
+                logger.error("Failed to deliver input action {}: {}", next.action, e.getMessage());
+                failure = e;
+            }
+
+            if (failure == null) {
+                next.future.complete(null);
+            } else {
+                next.future.completeExceptionally(failure);
+            }
+            synchronized (this) {
+                inFlight = false;
+                deliveredCount++;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Queued action with the future handed out to its callers.
+     */
+    private static final class Pending {
+        InputAction action;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        Pending(InputAction action) {
+            this.action = action;
+        }
+    }
+}
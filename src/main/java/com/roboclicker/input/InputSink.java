@@ -0,0 +1,15 @@
+package com.roboclicker.input;
+
+/**
+ * Destination for mouse actions - the real desktop, or a stand-in for headless runs.
+ */
+@FunctionalInterface
+public interface InputSink {
+
+    /**
+     * Deliver one action. Called only from the dispatcher thread.
+     * @param action Action to perform
+     * @throws Exception if the action could not be delivered
+     */
+    void deliver(InputAction action) throws Exception;
+}
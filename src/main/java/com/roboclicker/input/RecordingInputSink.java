@@ -0,0 +1,66 @@
+package com.roboclicker.input;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Input sink that records actions instead of moving the mouse.
+ * Stands in for {@link SikuliInputSink} so ordering and latency can be checked headless.
+ */
+public class RecordingInputSink implements InputSink {
+
+    private final long deliveryDelayMillis;
+    private final List<InputAction> actions = new ArrayList<>();
+    private final List<Long> latenciesNanos = new ArrayList<>();
+
+    /**
+     * Constructor for a sink that delivers instantly.
+     */
+    public RecordingInputSink() {
+        this(0);
+    }
+
+    /**
+     * Constructor for a sink that emulates slow input delivery.
+     * @param deliveryDelayMillis Time spent delivering each action
+     */
+    public RecordingInputSink(long deliveryDelayMillis) {
+        this.deliveryDelayMillis = deliveryDelayMillis;
+    }
+
+    @Override
+    public void deliver(InputAction action) throws Exception {
+        if (deliveryDelayMillis > 0) {
+            Thread.sleep(deliveryDelayMillis);
+        }
+        long latency = System.nanoTime() - action.getEnqueuedAtNanos();
+        synchronized (this) {
+            actions.add(action);
+            latenciesNanos.add(latency);
+        }
+    }
+
+    /**
+     * Get the delivered actions in delivery order.
+     * @return Copy of the recorded actions
+     */
+    public synchronized List<InputAction> getActions() {
+        return new ArrayList<>(actions);
+    }
+
+    /**
+     * Get the time from enqueue to completed delivery for every recorded action.
+     * @return Copy of the latencies in nanoseconds, in delivery order
+     */
+    public synchronized List<Long> getLatenciesNanos() {
+        return new ArrayList<>(latenciesNanos);
+    }
+
+    /**
+     * Forget all recorded actions.
+     */
+    public synchronized void clear() {
+        actions.clear();
+        latenciesNanos.clear();
+    }
+}
@@ -0,0 +1,38 @@
+package com.roboclicker.input;
+
+import org.sikuli.script.Location;
+import org.sikuli.script.Screen;
+
+/**
+ * Input sink that drives the real mouse through SikuliX.
+ */
+public class SikuliInputSink implements InputSink {
+
+    private final Screen screen;
+
+    /**
+     * Constructor.
+     * @param screen Screen used to perform mouse actions
+     */
+    public SikuliInputSink(Screen screen) {
+        this.screen = screen;
+    }
+
+    @Override
+    public void deliver(InputAction action) throws Exception {
+        Location location = new Location(action.getX(), action.getY());
+        switch (action.getType()) {
+            case CLICK:
+                screen.click(location);
+                break;
+            case DOUBLE_CLICK:
+                screen.doubleClick(location);
+                break;
+            case MOVE:
+                screen.mouseMove(location);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported input action: " + action.getType());
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.roboclicker.logging;
+
+/**
+ * One image matcher event, stored in a preallocated slot of the {@link MatchEventLog} ring.
+ * Instances are reused: listeners must copy any field they want to keep.
+ */
+public final class MatchEvent {
+
+    /**
+     * What happened.
+     */
+    public enum Kind {
+        STARTED(false),
+        MATCHED(true),
+        MISSED(false),
+        TIMED_OUT(true),
+        NOT_FOUND(true);
+
+        private final boolean terminal;
+
+        Kind(boolean terminal) {
+            this.terminal = terminal;
+        }
+
+        /**
+         * @return true if the event ends a lookup and is kept in summary mode
+         */
+        public boolean isTerminal() {
+            return terminal;
+        }
+    }
+
+    /**
+     * Matcher operation that produced the event.
+     */
+    public enum Operation {
+        WAIT,
+        FIND,
+        EXISTS,
+        TOP_K
+    }
+
+    private Kind kind;
+    private Operation operation;
+    private String imagePath;
+    private double similarity;
+    private int x;
+    private int y;
+    private long elapsedNanos;
+    private long sequence;
+
+    MatchEvent() {
+    }
+
+    void set(long sequence, Kind kind, Operation operation, String imagePath,
+             double similarity, int x, int y, long elapsedNanos) {
+        this.sequence = sequence;
+        this.kind = kind;
+        this.operation = operation;
+        this.imagePath = imagePath;
+        this.similarity = similarity;
+        this.x = x;
+        this.y = y;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public String getImagePath() {
+        return imagePath;
+    }
+
+    public double getSimilarity() {
+        return similarity;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * @return Time since the lookup started, in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return Position of the event in the log, starting at 0
+     */
+    public long getSequence() {
+        return sequence;
+    }
+}
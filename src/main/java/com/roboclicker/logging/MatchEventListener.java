@@ -0,0 +1,14 @@
+package com.roboclicker.logging;
+
+/**
+ * Receives match events on the {@link MatchEventLog} writer thread.
+ */
+@FunctionalInterface
+public interface MatchEventListener {
+
+    /**
+     * Handle one event. The event object is reused after this call returns.
+     * @param event Event to handle
+     */
+    void onEvent(MatchEvent event);
+}
@@ -0,0 +1,244 @@
+package com.roboclicker.logging;
+
+import com.roboclicker.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous log for image matcher events.
+ * Producers copy primitive fields into preallocated slots of a lock-free ring buffer;
+ * a background writer drains the ring and hands events to a {@link MatchEventListener}.
+ * Publishing never blocks and never allocates: when the ring is full the event is dropped and counted.
+ */
+public class MatchEventLog implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MatchEventLog.class);
+    private static final long FLUSH_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    // Idle writer: spin briefly, then yield, then park until a producer signals
+    private static final int IDLE_SPINS = 100;
+    private static final int IDLE_YIELDS = 10;
+    // Upper bound on a park, in case a wake-up is missed
+    private static final long IDLE_MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    private static MatchEventLog defaultLog;
+
+    /**
+     * How much detail is recorded.
+     */
+    public enum Mode {
+        // Every attempt of every lookup
+        DETAILED,
+        // Only the outcome of each lookup
+        SUMMARY,
+        // Counters only
+        OFF;
+
+        /**
+         * Parse a mode name, ignoring case.
+         * @param value Mode name, e.g. from {@link Config#MATCH_EVENT_LOG_MODE}
+         * @return Matching mode, or DETAILED if the name is unknown
+         */
+        public static Mode parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                logger.warn("Unknown match event log mode '{}', using {}", value, DETAILED);
+                return DETAILED;
+            }
+        }
+    }
+
+    private final Mode mode;
+    private final MatchEventListener listener;
+    private final MatchEvent[] ring;
+    private final int mask;
+    // Sequence written into a slot once its event is complete; -1 while never written
+    private final AtomicLongArray published;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLongArray kindCounts = new AtomicLongArray(MatchEvent.Kind.values().length);
+    private final Thread writer;
+    private volatile boolean running = true;
+    // Set while the writer is parked, so producers know to wake it
+    private volatile boolean writerParked;
+
+    /**
+     * Constructor that starts the writer thread.
+     * @param capacity Ring size, rounded up to a power of two
+     * @param mode Amount of detail recorded
+     * @param listener Receiver of drained events
+     */
+    public MatchEventLog(int capacity, Mode mode, MatchEventListener listener) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mode = mode;
+        this.listener = listener;
+        this.ring = new MatchEvent[size];
+        this.mask = size - 1;
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            ring[i] = new MatchEvent();
+            published.set(i, -1);
+        }
+        this.writer = new Thread(this::drain, "match-event-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Get the shared log configured from {@link Config}, creating it on first use.
+     * Remaining events are drained when the JVM shuts down.
+     * @return Shared MatchEventLog instance
+     */
+    public static synchronized MatchEventLog getDefault() {
+        if (defaultLog == null) {
+            MatchEventLog log = new MatchEventLog(Config.MATCH_EVENT_BUFFER_SIZE,
+                Mode.parse(Config.MATCH_EVENT_LOG_MODE), new Slf4jMatchEventListener());
+            Runtime.getRuntime().addShutdownHook(new Thread(log::close, "match-event-log-shutdown"));
+            defaultLog = log;
+        }
+        return defaultLog;
+    }
+
+    /**
+     * Record an event. Safe to call from any thread.
+     * @param kind What happened
+     * @param operation Matcher operation
+     * @param imagePath Path of the searched image
+     * @param similarity Similarity threshold of the attempt
+     * @param x Match X coordinate, or 0
+     * @param y Match Y coordinate, or 0
+     * @param elapsedNanos Time since the lookup started
+     * @return true if the event was queued for the listener
+     */
+    public boolean publish(MatchEvent.Kind kind, MatchEvent.Operation operation, String imagePath,
+                           double similarity, int x, int y, long elapsedNanos) {
+        kindCounts.incrementAndGet(kind.ordinal());
+        if (mode == Mode.OFF || (mode == Mode.SUMMARY && !kind.isTerminal())) {
+            return false;
+        }
+
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed.get() >= ring.length || !running) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        int slot = (int) sequence & mask;
+        ring[slot].set(sequence, kind, operation, imagePath, similarity, x, y, elapsedNanos);
+        // Release the slot's fields to the writer; a full fence so the parked flag read below is not stale
+        published.set(slot, sequence);
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    /**
+     * Wait until every event published so far has been handed to the listener.
+     * @param timeoutMillis Maximum time to wait
+     * @return true if the writer caught up in time, false otherwise
+     */
+    public boolean flush(long timeoutMillis) {
+        long target = claimed.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (consumed.get() < target) {
+            if (System.nanoTime() > deadline || !writer.isAlive()) {
+                return false;
+            }
+            LockSupport.parkNanos(FLUSH_PARK_NANOS);
+        }
+        return true;
+    }
+
+    /**
+     * Get how often an event kind was published, including events filtered by the mode.
+     * @param kind Event kind
+     * @return Number of events of this kind
+     */
+    public long getCount(MatchEvent.Kind kind) {
+        return kindCounts.get(kind.ordinal());
+    }
+
+    /**
+     * Get the number of events dropped because the writer fell a full ring behind.
+     * @return Number of dropped events
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Stop accepting events, drain the ring and stop the writer thread.
+     */
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Closing match event log interrupted");
+        }
+        logger.info("Match events: {} matched, {} missed, {} not found, {} timed out, {} dropped",
+            getCount(MatchEvent.Kind.MATCHED), getCount(MatchEvent.Kind.MISSED),
+            getCount(MatchEvent.Kind.NOT_FOUND), getCount(MatchEvent.Kind.TIMED_OUT), getDroppedCount());
+    }
+
+    private void drain() {
+        long next = 0;
+        int idleRounds = 0;
+        while (running || next < claimed.get()) {
+            int slot = (int) next & mask;
+            if (published.get(slot) != next) {
+                idle(slot, next, idleRounds++);
+                continue;
+            }
+            idleRounds = 0;
+            try {
+                listener.onEvent(ring[slot]);
+            } catch (RuntimeException e) {
+                logger.error("Match event listener failed: {}", e.getMessage());
+            }
+            next++;
+            consumed.lazySet(next);
+        }
+    }
+
+    /**
+     * Wait for the next event without burning a core while the matcher is idle.
+     * @param slot Ring slot the next event will be written to
+     * @param sequence Sequence of the next event
+     * @param idleRounds Number of times the writer already found the slot empty
+     */
+    private void idle(int slot, long sequence, int idleRounds) {
+        if (idleRounds < IDLE_SPINS) {
+            Thread.onSpinWait();
+        } else if (idleRounds < IDLE_SPINS + IDLE_YIELDS) {
+            Thread.yield();
+        } else {
+            writerParked = true;
+            // Re-check after raising the flag: a producer that missed it has published by now
+            if (running && published.get(slot) != sequence) {
+                LockSupport.parkNanos(this, IDLE_MAX_PARK_NANOS);
+            }
+            writerParked = false;
+        }
+    }
+}
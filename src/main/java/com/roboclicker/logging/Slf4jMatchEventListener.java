@@ -0,0 +1,49 @@
+package com.roboclicker.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Default listener that writes match events through SLF4J.
+ * Runs on the writer thread, so formatting cost stays off the matcher's hot path.
+ */
+public class Slf4jMatchEventListener implements MatchEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(Slf4jMatchEventListener.class);
+    private final StringBuilder line = new StringBuilder(160);
+
+    @Override
+    public void onEvent(MatchEvent event) {
+        MatchEvent.Kind kind = event.getKind();
+        // imageExists mostly confirms that something is not on screen, so it stays at debug level
+        boolean debugOnly = kind == MatchEvent.Kind.MISSED || event.getOperation() == MatchEvent.Operation.EXISTS;
+        if (debugOnly && !logger.isDebugEnabled()) {
+            return;
+        }
+
+        line.setLength(0);
+        line.append('[').append(event.getOperation()).append("] ").append(kind)
+            .append(' ').append(event.getImagePath());
+        if (kind == MatchEvent.Kind.MATCHED || kind == MatchEvent.Kind.MISSED) {
+            line.append(" similarity=").append(Math.round(event.getSimilarity() * 100) / 100.0);
+        }
+        if (kind == MatchEvent.Kind.MATCHED) {
+            line.append(" at (").append(event.getX()).append(", ").append(event.getY()).append(')');
+        }
+        line.append(" after ").append(event.getElapsedNanos() / 1_000_000).append(" ms");
+
+        if (debugOnly) {
+            logger.debug(line.toString());
+            return;
+        }
+        switch (kind) {
+            case TIMED_OUT:
+            case NOT_FOUND:
+                logger.warn(line.toString());
+                break;
+            default:
+                logger.info(line.toString());
+                break;
+        }
+    }
+}
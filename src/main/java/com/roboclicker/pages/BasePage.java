@@ -1,9 +1,12 @@
 package com.roboclicker.pages;
 
+import com.roboclicker.config.Config;
 import com.roboclicker.util.ImageMatcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Base class for all page objects.
  * Provides common functionality and ImageMatcher instance for all pages.
@@ -12,6 +15,8 @@ public abstract class BasePage {
     
     protected static final Logger logger = LoggerFactory.getLogger(BasePage.class);
     protected final ImageMatcher imageMatcher;
+    // Click queued by the last action, still being delivered while the next action searches
+    private CompletableFuture<Boolean> pendingClick = CompletableFuture.completedFuture(true);
     
     /**
      * Constructor that initializes the ImageMatcher.
@@ -29,5 +34,63 @@ public abstract class BasePage {
     protected ImageMatcher getImageMatcher() {
         return imageMatcher;
     }
+    
+    /**
+     * Find an image and queue a click on it without waiting for delivery.
+     * Lets a page start looking for the next element while the click is still in progress.
+     * @param imagePath Path to the image file
+     * @return Future completed with true once clicked, false otherwise
+     */
+    protected CompletableFuture<Boolean> clickImageAsync(String imagePath) {
+        return imageMatcher.clickImageAsync(imagePath, Config.TIMEOUT_SECONDS);
+    }
+    
+    /**
+     * Find an image and queue a click on it as the next step of a flow. The search runs while
+     * the previous step's click is still being delivered; that click is only awaited afterwards,
+     * and its failure fails this step.
+     * @param imagePath Path to the image file
+     * @return true if the previous click was delivered and this one was queued, false otherwise
+     */
+    protected boolean clickImageInFlow(String imagePath) {
+        return continueFlow(clickImageAsync(imagePath));
+    }
+    
+    /**
+     * Make a queued click the pending step of the flow, after checking the previous one.
+     * @param click Click just queued
+     * @return true if the previous click was delivered and this one was queued, false otherwise
+     */
+    protected boolean continueFlow(CompletableFuture<Boolean> click) {
+        CompletableFuture<Boolean> previous = pendingClick;
+        pendingClick = click;
+        if (!previous.join()) {
+            logger.warn("Previous click was not delivered");
+            return false;
+        }
+        if (click.isDone() && !click.join()) {
+            // Not found: nothing is pending, and the failure is reported here already
+            pendingClick = CompletableFuture.completedFuture(true);
+            return false;
+        }
+        return true;
+    }
+    
+    /**
+     * Wait until all queued mouse actions have been delivered.
+     * @return true if all input, including the last step's click, was delivered within the timeout, false otherwise
+     */
+    public boolean awaitPendingInput() {
+        boolean idle = imageMatcher.getInputDispatcher().awaitIdle(Config.TIMEOUT_SECONDS * 1000L);
+        if (!idle) {
+            logger.warn("Pending input not delivered within {} seconds", Config.TIMEOUT_SECONDS);
+            return false;
+        }
+        boolean delivered = pendingClick.join();
+        pendingClick = CompletableFuture.completedFuture(true);
+        if (!delivered) {
+            logger.warn("Last click was not delivered");
+        }
+        return delivered;
+    }
 }
-
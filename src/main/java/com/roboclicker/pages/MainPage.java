@@ -2,12 +2,19 @@ package com.roboclicker.pages;
 
 import com.roboclicker.config.Config;
 import com.roboclicker.util.ImageMatcher;
+import com.roboclicker.util.MatchResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
 /**
  * Main page object representing the primary application interface.
- * Contains all UI actions for the main application window.
+ * Contains all UI actions for the main application window. Each action queues its click and
+ * returns once it is queued, so the next action searches while the click is delivered; call
+ * {@link #awaitPendingInput()} after the last action of a flow.
  */
 public class MainPage extends BasePage {
     
@@ -24,41 +31,79 @@ public class MainPage extends BasePage {
     /**
      * Click the Games tab button.
      * This action clicks on the games tab to navigate to the games section.
-     * @return true if the games tab was successfully clicked, false otherwise
+     * @return true if the games tab click was queued, false otherwise
      */
     public boolean clickGamesTab() {
         logger.info("Executing action: Click Games Tab");
-        return imageMatcher.clickImage(Config.BUTTON_IMAGE_1, Config.TIMEOUT_SECONDS);
+        return clickImageInFlow(Config.BUTTON_IMAGE_1);
     }
     
     /**
      * Open the Vanguard page.
      * This action clicks on the Vanguard thumbnail to open the Vanguard game page.
-     * @return true if the Vanguard page was successfully opened, false otherwise
+     * @return true if the Vanguard thumbnail click was queued, false otherwise
      */
     public boolean openVanguardPage() {
         logger.info("Executing action: Open Vanguard Page");
-        return imageMatcher.clickImage(Config.BUTTON_IMAGE_2, Config.TIMEOUT_SECONDS);
+        return clickImageInFlow(Config.BUTTON_IMAGE_2);
     }
     
     /**
      * Open the WoW (World of Warcraft) tab.
      * This action clicks on the WoW tab to navigate to World of Warcraft section.
-     * @return true if the WoW tab was successfully opened, false otherwise
+     * @return true if the WoW tab click was queued, false otherwise
      */
     public boolean openWoWTab() {
         logger.info("Executing action: Open WoW Tab");
-        return imageMatcher.clickImage(Config.BUTTON_IMAGE_3, Config.TIMEOUT_SECONDS);
+        return clickImageInFlow(Config.BUTTON_IMAGE_3);
     }
     
     /**
      * Open the configuration gear/settings.
      * This action clicks on the configuration/settings gear icon to open settings.
-     * @return true if the configuration gear was successfully clicked, false otherwise
+     * @return true if the configuration gear click was queued, false otherwise
      */
     public boolean openConfigurationGear() {
         logger.info("Executing action: Open Configuration Gear");
-        return imageMatcher.clickImage(Config.BUTTON_IMAGE_4, Config.TIMEOUT_SECONDS);
+        return clickImageInFlow(Config.BUTTON_IMAGE_4);
+    }
+    
+    /**
+     * Open the game tile at the given position in the games grid.
+     * All tiles are located with a single top-K search and ordered left to right, top to bottom,
+     * so identical thumbnails can be told apart by position.
+     * @param index 1-based position of the tile in reading order
+     * @return true if the tile was found and its click queued, false otherwise
+     */
+    public boolean openGameTile(int index) {
+        logger.info("Executing action: Open Game Tile {}", index);
+        List<MatchResult> tiles = inReadingOrder(imageMatcher.findTopKResults(
+            Config.BUTTON_IMAGE_2, Config.GAME_TILE_MAX_COUNT, Config.GAME_TILE_MIN_SCORE));
+        if (index < 1 || index > tiles.size()) {
+            logger.warn("Game tile {} not found - {} tiles on screen", index, tiles.size());
+            return false;
+        }
+        return continueFlow(imageMatcher.clickMatchAsync(tiles.get(index - 1)));
+    }
+    
+    /**
+     * Sort matches into rows (tops within half a tile height) and each row left to right.
+     * @param matches Matches in any order
+     * @return Matches in reading order
+     */
+    private static List<MatchResult> inReadingOrder(List<MatchResult> matches) {
+        List<MatchResult> byTop = new ArrayList<>(matches);
+        byTop.sort(Comparator.comparingInt(MatchResult::getY));
+        List<MatchResult> ordered = new ArrayList<>();
+        int rowStart = 0;
+        for (int i = 1; i <= byTop.size(); i++) {
+            if (i == byTop.size() || byTop.get(i).getY() - byTop.get(rowStart).getY() > byTop.get(rowStart).getHeight() / 2) {
+                List<MatchResult> row = new ArrayList<>(byTop.subList(rowStart, i));
+                row.sort(Comparator.comparingInt(MatchResult::getX));
+                ordered.addAll(row);
+                rowStart = i;
+            }
+        }
+        return ordered;
     }
 }
-
@@ -0,0 +1,319 @@
+package com.roboclicker.sim;
+
+import com.roboclicker.config.Config;
+import com.roboclicker.input.InputAction;
+import com.roboclicker.input.InputSink;
+import com.roboclicker.util.ScreenSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * In-memory stand-in for the launcher window.
+ * Renders the button assets into frames and advances through the {@code MainPage} flow
+ * (Games tab, Vanguard thumbnail, WoW tab, configuration gear) as simulated clicks land
+ * on the element expected next. Acts as both the screen source and the input sink of an
+ * {@code ImageMatcher}, so page flows run headless. Optionally the Vanguard thumbnail is one
+ * tile of a games grid of identical thumbnails, shown until the Vanguard page is opened.
+ */
+public class LauncherSimulator implements ScreenSource, InputSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(LauncherSimulator.class);
+
+    // Element layout at scale 1.0, in flow order
+    private static final String[] ELEMENT_IMAGES = {
+        Config.BUTTON_IMAGE_1, Config.BUTTON_IMAGE_2, Config.BUTTON_IMAGE_3, Config.BUTTON_IMAGE_4
+    };
+    private static final int[][] ELEMENT_POSITIONS = {{40, 24}, {120, 140}, {480, 140}, {1160, 24}};
+    private static final Color BACKGROUND = new Color(22, 24, 31);
+    private static final int VANGUARD_ELEMENT = 1;
+    // Space between game tiles at scale 1.0
+    private static final int GAME_TILE_GAP = 20;
+
+    private final SimulatorSettings settings;
+    private final List<BufferedImage> elements = new ArrayList<>();
+    // Layout and noise draw from separate generators, so each flow's layout depends only on the
+    // seed and the number of resets, not on how many frames were captured before
+    private final Random layoutRandom;
+    private final Random noiseRandom;
+    private final Rectangle[] elementBounds = new Rectangle[ELEMENT_IMAGES.length];
+    // Game tiles other than the Vanguard tile
+    private final List<Rectangle> otherGameTiles = new ArrayList<>();
+    private final List<Rectangle> distractors = new ArrayList<>();
+    private final List<Color> distractorColors = new ArrayList<>();
+    private int state;
+    private long transitionAtNanos;
+    private int[] cleanFrame;
+    private boolean cleanFrameLoading;
+    private long clickCount;
+    private long missedClickCount;
+    private long frameCount;
+
+    /**
+     * Constructor that loads the element images and lays out the first state.
+     * @param settings Simulator settings
+     */
+    public LauncherSimulator(SimulatorSettings settings) {
+        this.settings = settings;
+        this.layoutRandom = new Random(settings.getSeed());
+        this.noiseRandom = new Random(~settings.getSeed());
+        for (String imagePath : ELEMENT_IMAGES) {
+            try {
+                BufferedImage image = ImageIO.read(new File(imagePath));
+                if (image == null) {
+                    throw new IllegalStateException("Unsupported image format: " + imagePath);
+                }
+                elements.add(image);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read simulator asset " + imagePath, e);
+            }
+        }
+        reset();
+    }
+
+    /**
+     * Start a new flow: back to the first state, with freshly jittered element positions and distractors.
+     */
+    public synchronized void reset() {
+        state = 0;
+        transitionAtNanos = 0;
+        double scale = settings.getScale();
+        for (int i = 0; i < elements.size(); i++) {
+            int w = (int) Math.round(elements.get(i).getWidth() * scale);
+            int h = (int) Math.round(elements.get(i).getHeight() * scale);
+            int x = (int) Math.round(ELEMENT_POSITIONS[i][0] * scale) + jitter();
+            int y = (int) Math.round(ELEMENT_POSITIONS[i][1] * scale) + jitter();
+            x = Math.max(0, Math.min(settings.getWidth() - w, x));
+            y = Math.max(0, Math.min(settings.getHeight() - h, y));
+            elementBounds[i] = new Rectangle(x, y, w, h);
+        }
+        layOutGameTiles();
+
+        distractors.clear();
+        distractorColors.clear();
+        int attempts = 0;
+        while (distractors.size() < settings.getDistractorCount() && attempts++ < settings.getDistractorCount() * 20) {
+            Rectangle shape = new Rectangle(layoutRandom.nextInt(settings.getWidth()), layoutRandom.nextInt(settings.getHeight()),
+                12 + layoutRandom.nextInt(80), 8 + layoutRandom.nextInt(40));
+            if (!intersectsElement(shape)) {
+                distractors.add(shape);
+                distractorColors.add(new Color(layoutRandom.nextInt(256), layoutRandom.nextInt(256), layoutRandom.nextInt(256)));
+            }
+        }
+        cleanFrame = null;
+    }
+
+    @Override
+    public synchronized BufferedImage capture() {
+        advance();
+        boolean loading = transitionAtNanos != 0;
+        if (cleanFrame == null || cleanFrameLoading != loading) {
+            cleanFrame = render(loading);
+            cleanFrameLoading = loading;
+        }
+
+        BufferedImage frame = new BufferedImage(settings.getWidth(), settings.getHeight(), BufferedImage.TYPE_INT_RGB);
+        int[] pixels = ((DataBufferInt) frame.getRaster().getDataBuffer()).getData();
+        System.arraycopy(cleanFrame, 0, pixels, 0, pixels.length);
+        int amplitude = settings.getNoiseAmplitude();
+        if (amplitude > 0) {
+            for (int i = 0; i < pixels.length; i++) {
+                int p = pixels[i];
+                int noise = noiseRandom.nextInt(2 * amplitude + 1) - amplitude;
+                pixels[i] = (clamp(((p >> 16) & 0xFF) + noise) << 16)
+                    | (clamp(((p >> 8) & 0xFF) + noise) << 8)
+                    | clamp((p & 0xFF) + noise);
+            }
+        }
+        frameCount++;
+        return frame;
+    }
+
+    @Override
+    public synchronized void deliver(InputAction action) {
+        if (action.getType() == InputAction.Type.MOVE) {
+            return;
+        }
+        advance();
+        clickCount++;
+        if (state >= elementBounds.length || transitionAtNanos != 0
+                || !elementBounds[state].contains(action.getX(), action.getY())) {
+            missedClickCount++;
+            logger.debug("Simulated click {} did not hit the expected element in state {}", action, state);
+            return;
+        }
+        // The launcher reacts after a delay; until then frames show it loading
+        transitionAtNanos = System.nanoTime() + settings.getTransitionDelayMillis() * 1_000_000L;
+    }
+
+    /**
+     * Wait until every element of the flow has been clicked and the last transition finished.
+     * @param timeoutMillis Maximum time to wait
+     * @return true if the flow completed in time, false otherwise
+     */
+    public boolean awaitFlowComplete(long timeoutMillis) {
+        return awaitState(elementBounds.length, timeoutMillis);
+    }
+
+    /**
+     * Wait until the flow has advanced at least to the given state.
+     * @param expectedState Number of elements that must have been clicked, with their transitions finished
+     * @param timeoutMillis Maximum time to wait
+     * @return true if the state was reached in time, false otherwise
+     */
+    public boolean awaitState(int expectedState, long timeoutMillis) {
+        long deadline = System.nanoTime() + timeoutMillis * 1_000_000L;
+        while (true) {
+            synchronized (this) {
+                advance();
+                if (state >= expectedState) {
+                    return true;
+                }
+            }
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Get the index of the element expected next; equals the number of flow steps once the flow is complete.
+     * @return Current state
+     */
+    public synchronized int getState() {
+        advance();
+        return state;
+    }
+
+    /**
+     * Get the current on-screen bounds of a flow element.
+     * @param index Element index in flow order
+     * @return Bounds in frame coordinates
+     */
+    public synchronized Rectangle getElementBounds(int index) {
+        return new Rectangle(elementBounds[index]);
+    }
+
+    public synchronized long getClickCount() {
+        return clickCount;
+    }
+
+    public synchronized long getMissedClickCount() {
+        return missedClickCount;
+    }
+
+    public synchronized long getFrameCount() {
+        return frameCount;
+    }
+
+    public SimulatorSettings getSettings() {
+        return settings;
+    }
+
+    private void advance() {
+        if (transitionAtNanos != 0 && System.nanoTime() >= transitionAtNanos) {
+            transitionAtNanos = 0;
+            state++;
+            cleanFrame = null;
+        }
+    }
+
+    /**
+     * Render the noise-free frame of the current state. Elements already visited stay visible;
+     * the element expected next is hidden while a transition is loading.
+     */
+    private int[] render(boolean loading) {
+        BufferedImage frame = new BufferedImage(settings.getWidth(), settings.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = frame.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.setColor(BACKGROUND);
+        g.fillRect(0, 0, settings.getWidth(), settings.getHeight());
+        for (int i = 0; i < distractors.size(); i++) {
+            Rectangle shape = distractors.get(i);
+            g.setColor(distractorColors.get(i));
+            if (i % 2 == 0) {
+                g.fillRect(shape.x, shape.y, shape.width, shape.height);
+            } else {
+                g.fillOval(shape.x, shape.y, shape.width, shape.height);
+            }
+        }
+        int visible = Math.min(elements.size(), loading ? state : state + 1);
+        for (int i = 0; i < visible; i++) {
+            Rectangle bounds = elementBounds[i];
+            g.drawImage(elements.get(i), bounds.x, bounds.y, bounds.width, bounds.height, null);
+        }
+        if (visible > VANGUARD_ELEMENT && state <= VANGUARD_ELEMENT) {
+            for (Rectangle bounds : otherGameTiles) {
+                g.drawImage(elements.get(VANGUARD_ELEMENT), bounds.x, bounds.y, bounds.width, bounds.height, null);
+            }
+        }
+        g.dispose();
+        return ((DataBufferInt) frame.getRaster().getDataBuffer()).getData();
+    }
+
+    /**
+     * Lay the games grid out from the Vanguard thumbnail's position and move the Vanguard tile
+     * to its slot in the grid.
+     */
+    private void layOutGameTiles() {
+        otherGameTiles.clear();
+        int columns = settings.getGameTileColumns();
+        int rows = settings.getGameTileRows();
+        if (columns * rows <= 1) {
+            return;
+        }
+        Rectangle first = elementBounds[VANGUARD_ELEMENT];
+        int gap = (int) Math.round(GAME_TILE_GAP * settings.getScale());
+        for (int tile = 0; tile < columns * rows; tile++) {
+            Rectangle bounds = new Rectangle(first.x + (tile % columns) * (first.width + gap),
+                first.y + (tile / columns) * (first.height + gap), first.width, first.height);
+            if (tile == settings.getVanguardTile() - 1) {
+                elementBounds[VANGUARD_ELEMENT] = bounds;
+            } else {
+                otherGameTiles.add(bounds);
+            }
+        }
+    }
+
+    private boolean intersectsElement(Rectangle shape) {
+        for (Rectangle bounds : elementBounds) {
+            if (bounds.intersects(shape)) {
+                return true;
+            }
+        }
+        for (Rectangle bounds : otherGameTiles) {
+            if (bounds.intersects(shape)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int jitter() {
+        int range = settings.getJitterPixels();
+        return range == 0 ? 0 : layoutRandom.nextInt(2 * range + 1) - range;
+    }
+
+    private static int clamp(int value) {
+        return value < 0 ? 0 : Math.min(255, value);
+    }
+}
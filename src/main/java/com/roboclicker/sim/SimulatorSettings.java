@@ -0,0 +1,126 @@
+package com.roboclicker.sim;
+
+import com.roboclicker.config.Config;
+
+/**
+ * Immutable settings of the {@link LauncherSimulator}.
+ */
+public final class SimulatorSettings {
+
+    private final int width;
+    private final int height;
+    private final double scale;
+    private final int noiseAmplitude;
+    private final int jitterPixels;
+    private final long transitionDelayMillis;
+    private final int distractorCount;
+    private final long seed;
+    private final int gameTileColumns;
+    private final int gameTileRows;
+    private final int vanguardTile;
+
+    /**
+     * Constructor for a launcher showing the Vanguard thumbnail as its only game tile.
+     * @param width Frame width in pixels
+     * @param height Frame height in pixels
+     * @param scale Size of the launcher UI relative to the assets, as after resizing the window
+     * @param noiseAmplitude Maximum per-channel noise added to every frame (0 to disable)
+     * @param jitterPixels Maximum random offset of element positions, re-rolled on every reset
+     * @param transitionDelayMillis Time between a click on the expected element and the next state
+     * @param distractorCount Number of random shapes drawn around the elements
+     * @param seed Random seed, so runs are reproducible
+     */
+    public SimulatorSettings(int width, int height, double scale, int noiseAmplitude, int jitterPixels,
+                             long transitionDelayMillis, int distractorCount, long seed) {
+        this(width, height, scale, noiseAmplitude, jitterPixels, transitionDelayMillis, distractorCount, seed, 1, 1, 1);
+    }
+
+    /**
+     * Constructor for a launcher whose games grid holds several identical thumbnails,
+     * only one of which opens the Vanguard page.
+     * @param width Frame width in pixels
+     * @param height Frame height in pixels
+     * @param scale Size of the launcher UI relative to the assets, as after resizing the window
+     * @param noiseAmplitude Maximum per-channel noise added to every frame (0 to disable)
+     * @param jitterPixels Maximum random offset of element positions, re-rolled on every reset
+     * @param transitionDelayMillis Time between a click on the expected element and the next state
+     * @param distractorCount Number of random shapes drawn around the elements
+     * @param seed Random seed, so runs are reproducible
+     * @param gameTileColumns Number of columns of the games grid
+     * @param gameTileRows Number of rows of the games grid
+     * @param vanguardTile 1-based position of the Vanguard tile in the grid, left to right, top to bottom
+     */
+    public SimulatorSettings(int width, int height, double scale, int noiseAmplitude, int jitterPixels,
+                             long transitionDelayMillis, int distractorCount, long seed,
+                             int gameTileColumns, int gameTileRows, int vanguardTile) {
+        if (vanguardTile < 1 || vanguardTile > gameTileColumns * gameTileRows) {
+            throw new IllegalArgumentException("Vanguard tile " + vanguardTile + " is outside the "
+                + gameTileColumns + "x" + gameTileRows + " games grid");
+        }
+        this.width = width;
+        this.height = height;
+        this.scale = scale;
+        this.noiseAmplitude = noiseAmplitude;
+        this.jitterPixels = jitterPixels;
+        this.transitionDelayMillis = transitionDelayMillis;
+        this.distractorCount = distractorCount;
+        this.seed = seed;
+        this.gameTileColumns = gameTileColumns;
+        this.gameTileRows = gameTileRows;
+        this.vanguardTile = vanguardTile;
+    }
+
+    /**
+     * Get the settings configured in {@link Config}.
+     * @return Default simulator settings
+     */
+    public static SimulatorSettings defaults() {
+        return new SimulatorSettings(Config.SIMULATOR_WIDTH, Config.SIMULATOR_HEIGHT, Config.SIMULATOR_SCALE,
+            Config.SIMULATOR_NOISE_AMPLITUDE, Config.SIMULATOR_JITTER_PIXELS,
+            Config.SIMULATOR_TRANSITION_DELAY_MILLIS, Config.SIMULATOR_DISTRACTOR_COUNT, Config.SIMULATOR_SEED);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public double getScale() {
+        return scale;
+    }
+
+    public int getNoiseAmplitude() {
+        return noiseAmplitude;
+    }
+
+    public int getJitterPixels() {
+        return jitterPixels;
+    }
+
+    public long getTransitionDelayMillis() {
+        return transitionDelayMillis;
+    }
+
+    public int getDistractorCount() {
+        return distractorCount;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getGameTileColumns() {
+        return gameTileColumns;
+    }
+
+    public int getGameTileRows() {
+        return gameTileRows;
+    }
+
+    public int getVanguardTile() {
+        return vanguardTile;
+    }
+}
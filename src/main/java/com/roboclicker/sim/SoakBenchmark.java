@@ -0,0 +1,102 @@
+package com.roboclicker.sim;
+
+import com.roboclicker.config.Config;
+import com.roboclicker.pages.MainPage;
+import com.roboclicker.util.ImageMatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Soak benchmark that runs the {@code ButtonClickSequenceTest} flow against the
+ * {@link LauncherSimulator} over and over, reporting throughput, latency percentiles and heap growth.
+ * Run with {@code java com.roboclicker.sim.SoakBenchmark [flows]}.
+ */
+public class SoakBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(SoakBenchmark.class);
+
+    private final SimulatorSettings settings;
+
+    /**
+     * Constructor.
+     * @param settings Settings of the simulated launcher
+     */
+    public SoakBenchmark(SimulatorSettings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Run the flow the given number of times. Each flow starts from a freshly reset launcher.
+     * @param flows Number of flows to run
+     * @return Report of the run
+     */
+    public SoakReport run(int flows) {
+        LauncherSimulator simulator = new LauncherSimulator(settings);
+        ImageMatcher imageMatcher = new ImageMatcher(Config.SIMULATOR_SIMILARITY, simulator, simulator);
+        MainPage mainPage = new MainPage(imageMatcher);
+        List<BooleanSupplier> steps = Arrays.asList(
+            mainPage::clickGamesTab,
+            mainPage::openVanguardPage,
+            mainPage::openWoWTab,
+            mainPage::openConfigurationGear);
+
+        long[] stepLatencies = new long[flows * steps.size()];
+        long[] flowLatencies = new long[flows];
+        int stepCount = 0;
+        int failed = 0;
+        long heapBefore = usedHeapAfterGc();
+        long start = System.nanoTime();
+
+        try {
+            for (int flow = 0; flow < flows; flow++) {
+                simulator.reset();
+                long flowStart = System.nanoTime();
+                boolean success = true;
+                for (BooleanSupplier step : steps) {
+                    long stepStart = System.nanoTime();
+                    success = step.getAsBoolean();
+                    stepLatencies[stepCount++] = System.nanoTime() - stepStart;
+                    if (!success) {
+                        break;
+                    }
+                }
+                // Drain the last click even after a failed step, so the next flow starts clean
+                success = mainPage.awaitPendingInput() && success
+                    && simulator.awaitFlowComplete(Config.TIMEOUT_SECONDS * 1000L);
+                flowLatencies[flow] = System.nanoTime() - flowStart;
+                if (!success) {
+                    failed++;
+                    logger.warn("Flow {} failed in state {}", flow + 1, simulator.getState());
+                }
+            }
+        } finally {
+            imageMatcher.close();
+        }
+
+        long duration = System.nanoTime() - start;
+        long heapAfter = usedHeapAfterGc();
+        return new SoakReport(flows, failed, duration, Arrays.copyOf(stepLatencies, stepCount), flowLatencies,
+            heapBefore, heapAfter, simulator.getMissedClickCount());
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Entry point for running the benchmark outside of the test suite.
+     * @param args Optional number of flows (default: 1000)
+     */
+    public static void main(String[] args) {
+        int flows = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        logger.info("Running soak benchmark with {} flows", flows);
+        SoakReport report = new SoakBenchmark(SimulatorSettings.defaults()).run(flows);
+        logger.info("{}", report);
+    }
+}
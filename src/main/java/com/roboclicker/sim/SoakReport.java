@@ -0,0 +1,117 @@
+package com.roboclicker.sim;
+
+import java.util.Arrays;
+
+/**
+ * Results of a {@link SoakBenchmark} run, or of the flows one session farm worker ran.
+ */
+public final class SoakReport {
+
+    private final int flows;
+    private final int failedFlows;
+    private final long durationNanos;
+    private final long[] stepLatenciesNanos;
+    private final long[] flowLatenciesNanos;
+    private final long heapBeforeBytes;
+    private final long heapAfterBytes;
+    private final long missedClicks;
+
+    /**
+     * Constructor.
+     * @param flows Number of flows run
+     * @param failedFlows Number of flows that did not complete
+     * @param durationNanos Wall-clock duration of the run
+     * @param stepLatenciesNanos Latency of every page action, in any order
+     * @param flowLatenciesNanos Latency of every flow, in any order
+     * @param heapBeforeBytes Used heap before the run, measured after a GC
+     * @param heapAfterBytes Used heap after the run, measured after a GC
+     * @param missedClicks Clicks that did not hit the expected element
+     */
+    public SoakReport(int flows, int failedFlows, long durationNanos, long[] stepLatenciesNanos, long[] flowLatenciesNanos,
+               long heapBeforeBytes, long heapAfterBytes, long missedClicks) {
+        this.flows = flows;
+        this.failedFlows = failedFlows;
+        this.durationNanos = durationNanos;
+        this.stepLatenciesNanos = stepLatenciesNanos.clone();
+        this.flowLatenciesNanos = flowLatenciesNanos.clone();
+        Arrays.sort(this.stepLatenciesNanos);
+        Arrays.sort(this.flowLatenciesNanos);
+        this.heapBeforeBytes = heapBeforeBytes;
+        this.heapAfterBytes = heapAfterBytes;
+        this.missedClicks = missedClicks;
+    }
+
+    public int getFlows() {
+        return flows;
+    }
+
+    public int getFailedFlows() {
+        return failedFlows;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public long getMissedClicks() {
+        return missedClicks;
+    }
+
+    /**
+     * @return Completed flows per second
+     */
+    public double getThroughputPerSecond() {
+        return durationNanos == 0 ? 0.0 : (flows - failedFlows) * 1e9 / durationNanos;
+    }
+
+    /**
+     * Get a percentile of the single-step latency (one page action).
+     * @param percentile Percentile between 0 and 100
+     * @return Latency in nanoseconds
+     */
+    public long getStepLatencyPercentile(double percentile) {
+        return percentile(stepLatenciesNanos, percentile);
+    }
+
+    /**
+     * Get a percentile of the whole-flow latency.
+     * @param percentile Percentile between 0 and 100
+     * @return Latency in nanoseconds
+     */
+    public long getFlowLatencyPercentile(double percentile) {
+        return percentile(flowLatenciesNanos, percentile);
+    }
+
+    /**
+     * @return Used heap after the run minus used heap before it, both measured after a GC
+     */
+    public long getHeapGrowthBytes() {
+        return heapAfterBytes - heapBeforeBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Soak: %d flows, %d failed, %d missed clicks, %.2f flows/s%n"
+                + "  step latency p50=%.1f ms p95=%.1f ms p99=%.1f ms max=%.1f ms%n"
+                + "  flow latency p50=%.1f ms p95=%.1f ms p99=%.1f ms max=%.1f ms%n"
+                + "  heap %.1f MB -> %.1f MB (growth %.1f MB)",
+            flows, failedFlows, missedClicks, getThroughputPerSecond(),
+            millis(getStepLatencyPercentile(50)), millis(getStepLatencyPercentile(95)),
+            millis(getStepLatencyPercentile(99)), millis(getStepLatencyPercentile(100)),
+            millis(getFlowLatencyPercentile(50)), millis(getFlowLatencyPercentile(95)),
+            millis(getFlowLatencyPercentile(99)), millis(getFlowLatencyPercentile(100)),
+            heapBeforeBytes / 1048576.0, heapAfterBytes / 1048576.0, getHeapGrowthBytes() / 1048576.0);
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
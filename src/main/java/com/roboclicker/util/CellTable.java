@@ -0,0 +1,105 @@
+package com.roboclicker.util;
+
+import java.util.Arrays;
+
+/**
+ * Summed-area tables of a scene sampled every step pixels: the pixel and squared-pixel sums of
+ * the step x step cells of a coarse pyramid level, in integral form. A box of whole cells costs
+ * the same four lookups as on the full-resolution tables, but the tables are step * step times
+ * smaller. Grid lines past the scene edge repeat the edge, so boxes reaching outside the scene
+ * are clipped to it.
+ */
+final class CellTable {
+
+    // Finer levels have too many cells to keep the statistics of every box
+    private static final int MIN_KEPT_STEP = 4;
+
+    final int step;
+    final int stride;
+    final long[] sums;
+    final long[] squares;
+    // Pixel coordinate of every grid line, clipped to the scene
+    final int[] lineX;
+    final int[] lineY;
+    // Mean and deviation norm of the box of span x span cells at each cell, by span; NaN until computed
+    private final double[][] boxStatistics;
+
+    /**
+     * Sample the scene's summed-area tables.
+     * @param scene Scene image
+     * @param step Cell side in pixels
+     * @param columns Number of cells across, may reach past the scene
+     * @param rows Number of cells down, may reach past the scene
+     * @param maxSpan Side in cells of the largest box that will be queried
+     */
+    CellTable(GrayImage scene, int step, int columns, int rows, int maxSpan) {
+        this.step = step;
+        this.boxStatistics = new double[step >= MIN_KEPT_STEP ? maxSpan + 1 : 0][];
+        this.stride = columns + 1;
+        this.sums = new long[stride * (rows + 1)];
+        this.squares = new long[stride * (rows + 1)];
+        this.lineX = new int[columns + 1];
+        this.lineY = new int[rows + 1];
+        for (int x = 0; x <= columns; x++) {
+            lineX[x] = Math.min(x * step, scene.width());
+        }
+        for (int y = 0; y <= rows; y++) {
+            lineY[y] = Math.min(y * step, scene.height());
+        }
+
+        long[] sceneSums = scene.integral();
+        long[] sceneSquares = scene.squaredIntegral();
+        int sceneStride = scene.width() + 1;
+        for (int y = 0; y <= rows; y++) {
+            int sceneRow = lineY[y] * sceneStride;
+            for (int x = 0; x <= columns; x++) {
+                sums[y * stride + x] = sceneSums[sceneRow + lineX[x]];
+                squares[y * stride + x] = sceneSquares[sceneRow + lineX[x]];
+            }
+        }
+    }
+
+    /**
+     * Get the kept statistics of the boxes of span x span cells, two entries per cell holding
+     * the mean and the norm of the deviations from it of the box whose top-left cell it is, or
+     * NaN until {@link #computeBoxStatistics} fills them in. Neighbouring squares of positions
+     * share most of their boxes, so each box is computed once.
+     * @param span Box side in cells
+     * @return Statistics by cell index times two, or null if this level does not keep them
+     */
+    double[] boxStatistics(int span) {
+        if (span >= boxStatistics.length) {
+            return null;
+        }
+        if (boxStatistics[span] == null) {
+            boxStatistics[span] = new double[2 * sums.length];
+            Arrays.fill(boxStatistics[span], Double.NaN);
+        }
+        return boxStatistics[span];
+    }
+
+    /**
+     * Compute the mean and the norm of the deviations from it of the box of span x span cells
+     * whose top-left cell is (cellX, cellY), clipped to the scene; both are 0 outside the scene.
+     * @param span Box side in cells
+     * @param cellX Column of the box's top-left cell
+     * @param cellY Row of the box's top-left cell
+     * @param out Receives the mean and the deviation norm
+     * @param index Position of the mean in out, followed by the deviation norm
+     */
+    void computeBoxStatistics(int span, int cellX, int cellY, double[] out, int index) {
+        int area = (lineX[cellX + span] - lineX[cellX]) * (lineY[cellY + span] - lineY[cellY]);
+        double mean = 0;
+        double deviation = 0;
+        if (area > 0) {
+            int top = cellY * stride + cellX;
+            int bottom = (cellY + span) * stride + cellX;
+            long sum = sums[bottom + span] - sums[bottom] - sums[top + span] + sums[top];
+            long sumOfSquares = squares[bottom + span] - squares[bottom] - squares[top + span] + squares[top];
+            mean = (double) sum / area;
+            deviation = Math.sqrt(Math.max(0, sumOfSquares - sum * mean));
+        }
+        out[index] = mean;
+        out[index + 1] = deviation;
+    }
+}
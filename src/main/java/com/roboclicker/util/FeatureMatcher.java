@@ -0,0 +1,525 @@
+package com.roboclicker.util;
+
+import com.roboclicker.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pure-Java keypoint matcher for locating templates at an unknown scale.
+ * Uses FAST-9 corners and BRIEF-style 256-bit binary descriptors (ORB without
+ * the orientation step, since launcher UI is never rotated). Template features
+ * are extracted once per image at several scales and cached, so a single pass
+ * over the screen finds the template and estimates its scale factor.
+ */
+public class FeatureMatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeatureMatcher.class);
+
+    // Descriptor patch radius; keypoints closer than this to the border are dropped
+    private static final int PATCH_RADIUS = 7;
+    private static final int BORDER = PATCH_RADIUS + 1;
+    private static final int DESCRIPTOR_BITS = 256;
+    private static final int DESCRIPTOR_WORDS = DESCRIPTOR_BITS / 64;
+    // Matches further apart than this (in bits) are ignored
+    private static final int MAX_HAMMING_DISTANCE = 64;
+    // Lowe-style ratio test between best and second best candidate
+    private static final double RATIO_TEST = 0.85;
+    // Translation bin size (pixels) used when voting for a template position
+    private static final int VOTE_BIN_SIZE = 6;
+    // Maximum distance (pixels) between a projected and an observed keypoint for an inlier
+    private static final double INLIER_TOLERANCE = 4.0;
+
+    // Bresenham circle of radius 3 used by the FAST segment test
+    private static final int[] CIRCLE_X = {0, 1, 2, 3, 3, 3, 2, 1, 0, -1, -2, -3, -3, -3, -2, -1};
+    private static final int[] CIRCLE_Y = {-3, -3, -2, -1, 0, 1, 2, 3, 3, 3, 2, 1, 0, -1, -2, -3};
+
+    // Point pairs compared by the descriptor, fixed seed so descriptors are stable across runs
+    private static final int[] SAMPLING_PATTERN = createSamplingPattern();
+
+    private final int fastThreshold;
+    private final int maxTemplateKeypoints;
+    private final int maxSceneKeypoints;
+    private final int minInliers;
+    private final double[] templateScales;
+    private final Map<String, TemplateFeatures> templateCache = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor with settings from {@link Config}.
+     */
+    public FeatureMatcher() {
+        this(Config.FEATURE_FAST_THRESHOLD, Config.FEATURE_MAX_TEMPLATE_KEYPOINTS,
+            Config.FEATURE_MAX_SCENE_KEYPOINTS, Config.FEATURE_MIN_INLIERS, Config.FEATURE_TEMPLATE_SCALES);
+    }
+
+    /**
+     * Constructor with custom settings.
+     * @param fastThreshold Intensity difference required by the FAST segment test
+     * @param maxTemplateKeypoints Maximum keypoints kept per template scale
+     * @param maxSceneKeypoints Maximum keypoints kept for the scene
+     * @param minInliers Minimum number of consistent keypoints for a match
+     * @param templateScales Scales at which template features are extracted
+     */
+    public FeatureMatcher(int fastThreshold, int maxTemplateKeypoints, int maxSceneKeypoints,
+                          int minInliers, double[] templateScales) {
+        this.fastThreshold = fastThreshold;
+        this.maxTemplateKeypoints = maxTemplateKeypoints;
+        this.maxSceneKeypoints = maxSceneKeypoints;
+        this.minInliers = minInliers;
+        this.templateScales = templateScales.clone();
+    }
+
+    /**
+     * Find a template in a scene using cached template features.
+     * @param imagePath Path to the template image file
+     * @param scene Image to search in
+     * @return Match result with estimated scale, or null if not found
+     */
+    public MatchResult match(String imagePath, BufferedImage scene) {
+        TemplateFeatures template = getTemplateFeatures(imagePath);
+        if (template == null) {
+            return null;
+        }
+        return match(template, GrayImage.fromImage(scene));
+    }
+
+    /**
+     * Find a template in a scene without caching the template features.
+     * @param template Template image
+     * @param scene Image to search in
+     * @return Match result with estimated scale, or null if not found
+     */
+    public MatchResult match(BufferedImage template, BufferedImage scene) {
+        return match(extractTemplateFeatures(GrayImage.fromImage(template)), GrayImage.fromImage(scene));
+    }
+
+    /**
+     * Drop all cached template features.
+     */
+    public void clearCache() {
+        templateCache.clear();
+    }
+
+    private TemplateFeatures getTemplateFeatures(String imagePath) {
+        TemplateFeatures cached = templateCache.get(imagePath);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            BufferedImage image = ImageIO.read(new File(imagePath));
+            if (image == null) {
+                logger.error("Unsupported image format: {}", imagePath);
+                return null;
+            }
+            TemplateFeatures features = extractTemplateFeatures(GrayImage.fromImage(image));
+            logger.debug("Extracted {} template keypoints from {}", features.count, imagePath);
+            templateCache.put(imagePath, features);
+            return features;
+        } catch (IOException e) {
+            logger.error("Failed to read image {}: {}", imagePath, e.getMessage());
+            return null;
+        }
+    }
+
+    private TemplateFeatures extractTemplateFeatures(GrayImage template) {
+        List<Keypoints> levels = new ArrayList<>();
+        for (double scale : templateScales) {
+            GrayImage level = scale == 1.0 ? template : template.resize(scale);
+            levels.add(detect(level, maxTemplateKeypoints));
+        }
+        return new TemplateFeatures(template.width(), template.height(), templateScales, levels);
+    }
+
+    private MatchResult match(TemplateFeatures template, GrayImage scene) {
+        Keypoints sceneKeypoints = detect(scene, maxSceneKeypoints);
+        if (template.count == 0 || sceneKeypoints.count == 0) {
+            return null;
+        }
+
+        // Pair every template keypoint with its nearest scene descriptor
+        int[] pairLevel = new int[template.count];
+        int[] pairTemplate = new int[template.count];
+        int[] pairScene = new int[template.count];
+        int pairs = 0;
+        for (int level = 0; level < template.levels.size(); level++) {
+            Keypoints keypoints = template.levels.get(level);
+            for (int i = 0; i < keypoints.count; i++) {
+                int best = Integer.MAX_VALUE;
+                int second = Integer.MAX_VALUE;
+                int bestIndex = -1;
+                for (int j = 0; j < sceneKeypoints.count; j++) {
+                    int distance = hamming(keypoints.descriptors, i, sceneKeypoints.descriptors, j);
+                    if (distance < best) {
+                        second = best;
+                        best = distance;
+                        bestIndex = j;
+                    } else if (distance < second) {
+                        second = distance;
+                    }
+                }
+                if (best <= MAX_HAMMING_DISTANCE && best < RATIO_TEST * second) {
+                    pairLevel[pairs] = level;
+                    pairTemplate[pairs] = i;
+                    pairScene[pairs] = bestIndex;
+                    pairs++;
+                }
+            }
+        }
+        if (pairs < minInliers) {
+            logger.debug("Too few descriptor matches: {}", pairs);
+            return null;
+        }
+
+        // Vote for (scale level, translation) - every pair predicts where the template's origin lies
+        Map<Long, Integer> votes = new HashMap<>();
+        for (int p = 0; p < pairs; p++) {
+            votes.merge(voteKey(template, pairLevel[p], pairTemplate[p], sceneKeypoints, pairScene[p]), 1, Integer::sum);
+        }
+        long bestKey = 0;
+        int bestVotes = 0;
+        for (Map.Entry<Long, Integer> entry : votes.entrySet()) {
+            int support = neighbourhoodVotes(votes, entry.getKey());
+            if (support > bestVotes) {
+                bestVotes = support;
+                bestKey = entry.getKey();
+            }
+        }
+        if (bestVotes < minInliers) {
+            logger.debug("No consistent keypoint cluster (best support {})", bestVotes);
+            return null;
+        }
+
+        // Collect the pairs supporting the winning cluster
+        int bestLevel = (int) (bestKey >>> 42);
+        int bestBinX = (int) ((bestKey >>> 21) & 0x1FFFFF) - (1 << 20);
+        int bestBinY = (int) (bestKey & 0x1FFFFF) - (1 << 20);
+        double[] tx = new double[pairs];
+        double[] ty = new double[pairs];
+        double[] sx = new double[pairs];
+        double[] sy = new double[pairs];
+        int inliers = 0;
+        for (int p = 0; p < pairs; p++) {
+            long key = voteKey(template, pairLevel[p], pairTemplate[p], sceneKeypoints, pairScene[p]);
+            int level = (int) (key >>> 42);
+            int binX = (int) ((key >>> 21) & 0x1FFFFF) - (1 << 20);
+            int binY = (int) (key & 0x1FFFFF) - (1 << 20);
+            if (Math.abs(level - bestLevel) <= 1 && Math.abs(binX - bestBinX) <= 1 && Math.abs(binY - bestBinY) <= 1) {
+                Keypoints keypoints = template.levels.get(pairLevel[p]);
+                double levelScale = template.scales[pairLevel[p]];
+                tx[inliers] = keypoints.x[pairTemplate[p]] / levelScale;
+                ty[inliers] = keypoints.y[pairTemplate[p]] / levelScale;
+                sx[inliers] = sceneKeypoints.x[pairScene[p]];
+                sy[inliers] = sceneKeypoints.y[pairScene[p]];
+                inliers++;
+            }
+        }
+
+        // Refine scale from pairwise distance ratios, then translation from the refined scale
+        double scale = estimateScale(tx, ty, sx, sy, inliers, template.scales[bestLevel]);
+        double[] offsetX = new double[inliers];
+        double[] offsetY = new double[inliers];
+        for (int i = 0; i < inliers; i++) {
+            offsetX[i] = sx[i] - scale * tx[i];
+            offsetY[i] = sy[i] - scale * ty[i];
+        }
+        double originX = median(offsetX, inliers);
+        double originY = median(offsetY, inliers);
+
+        int consistent = 0;
+        for (int i = 0; i < inliers; i++) {
+            double dx = originX + scale * tx[i] - sx[i];
+            double dy = originY + scale * ty[i] - sy[i];
+            if (dx * dx + dy * dy <= INLIER_TOLERANCE * INLIER_TOLERANCE) {
+                consistent++;
+            }
+        }
+        if (consistent < minInliers) {
+            logger.debug("Keypoint cluster not geometrically consistent ({} inliers)", consistent);
+            return null;
+        }
+
+        // Reject clusters implying a scale outside the searched range or a template off the scene
+        int width = (int) Math.round(template.width * scale);
+        int height = (int) Math.round(template.height * scale);
+        int x = (int) Math.round(originX);
+        int y = (int) Math.round(originY);
+        int slack = (int) Math.ceil(INLIER_TOLERANCE);
+        if (scale < minTemplateScale() / 1.1 || scale > maxTemplateScale() * 1.1
+                || x < -slack || y < -slack || x + width > scene.width() + slack || y + height > scene.height() + slack) {
+            logger.debug("Keypoint cluster implies an implausible match (scale {}, at {}, {})", scale, x, y);
+            return null;
+        }
+
+        int levelKeypoints = Math.max(1, template.levels.get(bestLevel).count);
+        double score = Math.min(1.0, (double) consistent / levelKeypoints);
+        return new MatchResult(Math.max(0, x), Math.max(0, y),
+            Math.min(width, scene.width() - Math.max(0, x)), Math.min(height, scene.height() - Math.max(0, y)),
+            score, scale);
+    }
+
+    private double minTemplateScale() {
+        double min = Double.MAX_VALUE;
+        for (double scale : templateScales) {
+            min = Math.min(min, scale);
+        }
+        return min;
+    }
+
+    private double maxTemplateScale() {
+        double max = 0;
+        for (double scale : templateScales) {
+            max = Math.max(max, scale);
+        }
+        return max;
+    }
+
+    private long voteKey(TemplateFeatures template, int level, int templateIndex, Keypoints scene, int sceneIndex) {
+        Keypoints keypoints = template.levels.get(level);
+        // Keypoint coordinates at this level already include the level scale
+        double originX = scene.x[sceneIndex] - keypoints.x[templateIndex];
+        double originY = scene.y[sceneIndex] - keypoints.y[templateIndex];
+        long binX = Math.floorDiv((long) Math.floor(originX), VOTE_BIN_SIZE) + (1 << 20);
+        long binY = Math.floorDiv((long) Math.floor(originY), VOTE_BIN_SIZE) + (1 << 20);
+        return ((long) level << 42) | (binX << 21) | binY;
+    }
+
+    private static int neighbourhoodVotes(Map<Long, Integer> votes, long key) {
+        long level = key >>> 42;
+        long binX = (key >>> 21) & 0x1FFFFF;
+        long binY = key & 0x1FFFFF;
+        int total = 0;
+        for (long l = Math.max(0, level - 1); l <= level + 1; l++) {
+            for (long bx = binX - 1; bx <= binX + 1; bx++) {
+                for (long by = binY - 1; by <= binY + 1; by++) {
+                    total += votes.getOrDefault((l << 42) | (bx << 21) | by, 0);
+                }
+            }
+        }
+        return total;
+    }
+
+    private static double estimateScale(double[] tx, double[] ty, double[] sx, double[] sy, int count, double fallback) {
+        int maxRatios = count * (count - 1) / 2;
+        double[] ratios = new double[maxRatios];
+        int ratioCount = 0;
+        for (int i = 0; i < count; i++) {
+            for (int j = i + 1; j < count; j++) {
+                double templateDistance = Math.hypot(tx[i] - tx[j], ty[i] - ty[j]);
+                // Short baselines are dominated by the one-pixel keypoint quantisation
+                if (templateDistance >= 2 * BORDER) {
+                    ratios[ratioCount++] = Math.hypot(sx[i] - sx[j], sy[i] - sy[j]) / templateDistance;
+                }
+            }
+        }
+        return ratioCount == 0 ? fallback : median(ratios, ratioCount);
+    }
+
+    private static double median(double[] values, int count) {
+        double[] sorted = Arrays.copyOf(values, count);
+        Arrays.sort(sorted);
+        return count % 2 == 1 ? sorted[count / 2] : (sorted[count / 2 - 1] + sorted[count / 2]) / 2.0;
+    }
+
+    /**
+     * Detect FAST-9 corners with 3x3 non-maximum suppression and describe the strongest ones.
+     */
+    private Keypoints detect(GrayImage image, int maxKeypoints) {
+        int w = image.width();
+        int h = image.height();
+        if (w <= 2 * BORDER || h <= 2 * BORDER) {
+            return new Keypoints(new int[0], new int[0], new long[0], 0);
+        }
+        int[] pixels = image.pixels();
+        int[] scores = new int[w * h];
+        int[] circleOffsets = new int[CIRCLE_X.length];
+        for (int i = 0; i < circleOffsets.length; i++) {
+            circleOffsets[i] = CIRCLE_Y[i] * w + CIRCLE_X[i];
+        }
+
+        for (int y = BORDER; y < h - BORDER; y++) {
+            for (int x = BORDER; x < w - BORDER; x++) {
+                int index = y * w + x;
+                scores[index] = cornerScore(pixels, index, circleOffsets);
+            }
+        }
+
+        int candidates = 0;
+        int[] candidateIndex = new int[w * h];
+        for (int y = BORDER; y < h - BORDER; y++) {
+            for (int x = BORDER; x < w - BORDER; x++) {
+                int index = y * w + x;
+                int score = scores[index];
+                if (score > 0 && isLocalMaximum(scores, index, w)) {
+                    candidateIndex[candidates++] = index;
+                }
+            }
+        }
+
+        // Keep the strongest corners only
+        Integer[] order = new Integer[candidates];
+        for (int i = 0; i < candidates; i++) {
+            order[i] = candidateIndex[i];
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(scores[b], scores[a]));
+        int count = Math.min(candidates, maxKeypoints);
+
+        int[] xs = new int[count];
+        int[] ys = new int[count];
+        long[] descriptors = new long[count * DESCRIPTOR_WORDS];
+        for (int i = 0; i < count; i++) {
+            xs[i] = order[i] % w;
+            ys[i] = order[i] / w;
+            describe(image, xs[i], ys[i], descriptors, i * DESCRIPTOR_WORDS);
+        }
+        return new Keypoints(xs, ys, descriptors, count);
+    }
+
+    private int cornerScore(int[] pixels, int index, int[] circleOffsets) {
+        int center = pixels[index];
+        int brightLimit = center + fastThreshold;
+        int darkLimit = center - fastThreshold;
+
+        // A contiguous arc of 9 always covers at least two of the four compass points
+        int brightCompass = 0;
+        int darkCompass = 0;
+        for (int i = 0; i < 16; i += 4) {
+            int value = pixels[index + circleOffsets[i]];
+            if (value > brightLimit) {
+                brightCompass++;
+            } else if (value < darkLimit) {
+                darkCompass++;
+            }
+        }
+        if (brightCompass < 2 && darkCompass < 2) {
+            return 0;
+        }
+
+        int brightRun = 0;
+        int darkRun = 0;
+        boolean corner = false;
+        for (int i = 0; i < 16 + 8 && !corner; i++) {
+            int value = pixels[index + circleOffsets[i & 15]];
+            brightRun = value > brightLimit ? brightRun + 1 : 0;
+            darkRun = value < darkLimit ? darkRun + 1 : 0;
+            corner = brightRun >= 9 || darkRun >= 9;
+        }
+        if (!corner) {
+            return 0;
+        }
+
+        int score = 0;
+        for (int offset : circleOffsets) {
+            int diff = Math.abs(pixels[index + offset] - center) - fastThreshold;
+            if (diff > 0) {
+                score += diff;
+            }
+        }
+        return score;
+    }
+
+    private static boolean isLocalMaximum(int[] scores, int index, int width) {
+        int score = scores[index];
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                if (dx == 0 && dy == 0) {
+                    continue;
+                }
+                int other = scores[index + dy * width + dx];
+                // Ties go to the first pixel in scan order
+                if (other > score || (other == score && dy * width + dx < 0)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compute a binary descriptor by comparing 3x3 box means at fixed point pairs.
+     * Box means come from the integral image, which doubles as the smoothing step.
+     */
+    private static void describe(GrayImage image, int x, int y, long[] out, int offset) {
+        for (int bit = 0; bit < DESCRIPTOR_BITS; bit++) {
+            int p = bit * 4;
+            long a = image.boxSum(x + SAMPLING_PATTERN[p] - 1, y + SAMPLING_PATTERN[p + 1] - 1, 3, 3);
+            long b = image.boxSum(x + SAMPLING_PATTERN[p + 2] - 1, y + SAMPLING_PATTERN[p + 3] - 1, 3, 3);
+            if (a < b) {
+                out[offset + (bit >> 6)] |= 1L << (bit & 63);
+            }
+        }
+    }
+
+    private static int hamming(long[] a, int i, long[] b, int j) {
+        int distance = 0;
+        int ai = i * DESCRIPTOR_WORDS;
+        int bj = j * DESCRIPTOR_WORDS;
+        for (int k = 0; k < DESCRIPTOR_WORDS; k++) {
+            distance += Long.bitCount(a[ai + k] ^ b[bj + k]);
+        }
+        return distance;
+    }
+
+    private static int[] createSamplingPattern() {
+        // Isotropic Gaussian sampling as in the BRIEF paper, clamped so 3x3 boxes stay inside the patch
+        Random random = new Random(0x0B5E55EDL);
+        int limit = PATCH_RADIUS - 1;
+        double sigma = PATCH_RADIUS / 2.0;
+        int[] pattern = new int[DESCRIPTOR_BITS * 4];
+        for (int i = 0; i < pattern.length; i++) {
+            int value = (int) Math.round(random.nextGaussian() * sigma);
+            pattern[i] = Math.max(-limit, Math.min(limit, value));
+        }
+        return pattern;
+    }
+
+    /**
+     * Keypoint positions and packed descriptors for one image.
+     */
+    private static final class Keypoints {
+        final int[] x;
+        final int[] y;
+        final long[] descriptors;
+        final int count;
+
+        Keypoints(int[] x, int[] y, long[] descriptors, int count) {
+            this.x = x;
+            this.y = y;
+            this.descriptors = descriptors;
+            this.count = count;
+        }
+    }
+
+    /**
+     * Cached keypoints of a template at every configured scale.
+     */
+    private static final class TemplateFeatures {
+        final int width;
+        final int height;
+        final double[] scales;
+        final List<Keypoints> levels;
+        final int count;
+
+        TemplateFeatures(int width, int height, double[] scales, List<Keypoints> levels) {
+            this.width = width;
+            this.height = height;
+            this.scales = scales;
+            this.levels = levels;
+            int total = 0;
+            for (Keypoints keypoints : levels) {
+                total += keypoints.count;
+            }
+            this.count = total;
+        }
+    }
+}
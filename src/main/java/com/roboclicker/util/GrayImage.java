@@ -0,0 +1,170 @@
+package com.roboclicker.util;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Compact 8-bit grayscale raster used by the pure-Java matchers.
+ * Keeps pixels in a flat row-major array so inner loops stay allocation free.
+ */
+final class GrayImage {
+
+    private final int width;
+    private final int height;
+    private final int[] pixels;
+    private long[] integral;
+    private long[] squaredIntegral;
+
+    GrayImage(int width, int height, int[] pixels) {
+        this.width = width;
+        this.height = height;
+        this.pixels = pixels;
+    }
+
+    /**
+     * Convert an image to grayscale using integer BT.601 luma weights.
+     * @param image Source image
+     * @return Grayscale copy of the image
+     */
+    static GrayImage fromImage(BufferedImage image) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        int[] rgb = image.getRGB(0, 0, w, h, null, 0, w);
+        int[] gray = new int[w * h];
+        for (int i = 0; i < rgb.length; i++) {
+            int p = rgb[i];
+            int r = (p >> 16) & 0xFF;
+            int g = (p >> 8) & 0xFF;
+            int b = p & 0xFF;
+            gray[i] = (r * 77 + g * 150 + b * 29) >> 8;
+        }
+        return new GrayImage(w, h, gray);
+    }
+
+    /**
+     * Resize with bilinear interpolation.
+     * @param scale Scale factor applied to both axes
+     * @return Resized copy, at least 1x1 pixels
+     */
+    GrayImage resize(double scale) {
+        int w = Math.max(1, (int) Math.round(width * scale));
+        int h = Math.max(1, (int) Math.round(height * scale));
+        int[] out = new int[w * h];
+        double fx = (double) width / w;
+        double fy = (double) height / h;
+        for (int y = 0; y < h; y++) {
+            double sy = Math.max(0, (y + 0.5) * fy - 0.5);
+            int y0 = Math.min((int) sy, height - 1);
+            int y1 = Math.min(y0 + 1, height - 1);
+            double wy = sy - y0;
+            for (int x = 0; x < w; x++) {
+                double sx = Math.max(0, (x + 0.5) * fx - 0.5);
+                int x0 = Math.min((int) sx, width - 1);
+                int x1 = Math.min(x0 + 1, width - 1);
+                double wx = sx - x0;
+                double top = get(x0, y0) * (1 - wx) + get(x1, y0) * wx;
+                double bottom = get(x0, y1) * (1 - wx) + get(x1, y1) * wx;
+                out[y * w + x] = (int) Math.round(top * (1 - wy) + bottom * wy);
+            }
+        }
+        return new GrayImage(w, h, out);
+    }
+
+    /**
+     * Halve both dimensions by averaging 2x2 blocks. Odd trailing rows and columns are dropped.
+     * @return Downsampled copy, at least 1x1 pixels
+     */
+    GrayImage downsample() {
+        int w = Math.max(1, width / 2);
+        int h = Math.max(1, height / 2);
+        int[] out = new int[w * h];
+        for (int y = 0; y < h; y++) {
+            int y0 = Math.min(2 * y, height - 1);
+            int y1 = Math.min(2 * y + 1, height - 1);
+            for (int x = 0; x < w; x++) {
+                int x0 = Math.min(2 * x, width - 1);
+                int x1 = Math.min(2 * x + 1, width - 1);
+                out[y * w + x] = (get(x0, y0) + get(x1, y0) + get(x0, y1) + get(x1, y1) + 2) >> 2;
+            }
+        }
+        return new GrayImage(w, h, out);
+    }
+
+    /**
+     * Get the summed-area table, computed lazily on first use.
+     * Entry (x, y) of the (width+1) x (height+1) table holds the sum of all
+     * pixels above and to the left of pixel (x, y).
+     * @return Integral image
+     */
+    long[] integral() {
+        if (integral == null) {
+            int stride = width + 1;
+            long[] table = new long[stride * (height + 1)];
+            for (int y = 0; y < height; y++) {
+                long rowSum = 0;
+                for (int x = 0; x < width; x++) {
+                    rowSum += pixels[y * width + x];
+                    table[(y + 1) * stride + x + 1] = table[y * stride + x + 1] + rowSum;
+                }
+            }
+            integral = table;
+        }
+        return integral;
+    }
+
+    /**
+     * Get the summed-area table of squared pixels, computed lazily on first use.
+     * @return Integral image of squared pixel values
+     */
+    long[] squaredIntegral() {
+        if (squaredIntegral == null) {
+            int stride = width + 1;
+            long[] table = new long[stride * (height + 1)];
+            for (int y = 0; y < height; y++) {
+                long rowSum = 0;
+                for (int x = 0; x < width; x++) {
+                    long p = pixels[y * width + x];
+                    rowSum += p * p;
+                    table[(y + 1) * stride + x + 1] = table[y * stride + x + 1] + rowSum;
+                }
+            }
+            squaredIntegral = table;
+        }
+        return squaredIntegral;
+    }
+
+    /**
+     * Sum of the pixels in the rectangle [x, x+w) x [y, y+h).
+     */
+    long boxSum(int x, int y, int w, int h) {
+        return rectangleSum(integral(), x, y, w, h);
+    }
+
+    /**
+     * Sum of the squared pixels in the rectangle [x, x+w) x [y, y+h).
+     */
+    long boxSumOfSquares(int x, int y, int w, int h) {
+        return rectangleSum(squaredIntegral(), x, y, w, h);
+    }
+
+    private long rectangleSum(long[] table, int x, int y, int w, int h) {
+        int stride = width + 1;
+        return table[(y + h) * stride + x + w] - table[y * stride + x + w]
+            - table[(y + h) * stride + x] + table[y * stride + x];
+    }
+
+    int get(int x, int y) {
+        return pixels[y * width + x];
+    }
+
+    int[] pixels() {
+        return pixels;
+    }
+
+    int width() {
+        return width;
+    }
+
+    int height() {
+        return height;
+    }
+}
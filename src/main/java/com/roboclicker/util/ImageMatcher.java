@@ -1,30 +1,56 @@
 package com.roboclicker.util;
 
+import com.roboclicker.config.Config;
+import com.roboclicker.input.InputAction;
+import com.roboclicker.input.InputDispatcher;
+import com.roboclicker.input.InputSink;
+import com.roboclicker.input.SikuliInputSink;
+import com.roboclicker.logging.MatchEvent;
+import com.roboclicker.logging.MatchEventLog;
 import org.sikuli.script.FindFailed;
+import org.sikuli.script.Location;
 import org.sikuli.script.Match;
 import org.sikuli.script.Pattern;
+import org.sikuli.script.Region;
 import org.sikuli.script.Screen;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.awt.image.BufferedImage;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Utility class for image matching operations using SikuliX.
  * Provides methods for finding and interacting with images on screen.
+ * Close the matcher when done to stop its input dispatcher thread.
  */
-public class ImageMatcher {
+public class ImageMatcher implements AutoCloseable {
     
     private static final Logger logger = LoggerFactory.getLogger(ImageMatcher.class);
+    // Search radius (pixels) when confirming a keypoint match with an exact search
+    private static final int SCALE_CONFIRM_RADIUS = 3;
     private final Screen screen;
+    private final ScreenSource screenSource;
+    private final InputDispatcher inputDispatcher;
+    private final FeatureMatcher featureMatcher = new FeatureMatcher();
+    private final TemplateMatcher templateMatcher = new TemplateMatcher();
+    private final MatchEventLog events = MatchEventLog.getDefault();
+    // Template scale factors learned by keypoint matching, keyed by image path
+    private final Map<String, Float> templateScales = new ConcurrentHashMap<>();
+    // Keypoint passes that did not yield a confirmed scale, keyed by image path
+    private final Map<String, FailedScaleEstimate> failedScaleEstimates = new ConcurrentHashMap<>();
     private double similarity;
     
     /**
      * Constructor with default similarity threshold.
      */
     public ImageMatcher() {
-        this.screen = new Screen();
-        this.similarity = 0.8; // Default similarity
+        this(0.8, null); // Default similarity
     }
     
     /**
@@ -32,8 +58,35 @@ public class ImageMatcher {
      * @param similarity Similarity threshold (0.0 to 1.0)
      */
     public ImageMatcher(double similarity) {
+        this(similarity, null);
+    }
+    
+    /**
+     * Constructor with custom similarity threshold and input sink.
+     * @param similarity Similarity threshold (0.0 to 1.0)
+     * @param inputSink Destination for mouse actions, or null to use the real mouse
+     */
+    public ImageMatcher(double similarity, InputSink inputSink) {
         this.screen = new Screen();
+        this.screenSource = () -> screen.capture().getImage();
         this.similarity = similarity;
+        this.inputDispatcher = new InputDispatcher(inputSink != null ? inputSink : new SikuliInputSink(screen));
+    }
+    
+    /**
+     * Constructor for matching against frames from a custom source instead of the SikuliX screen,
+     * e.g. an in-memory launcher simulator. Frames are scored exactly by the pure-Java template
+     * matcher, so the similarity threshold is applied directly instead of the adaptive ladder.
+     * Methods returning SikuliX {@link Match} objects are unavailable in this mode.
+     * @param similarity Similarity threshold (0.0 to 1.0)
+     * @param screenSource Source of frames to search
+     * @param inputSink Destination for mouse actions
+     */
+    public ImageMatcher(double similarity, ScreenSource screenSource, InputSink inputSink) {
+        this.screen = null;
+        this.screenSource = screenSource;
+        this.similarity = similarity;
+        this.inputDispatcher = new InputDispatcher(inputSink);
     }
     
     /**
@@ -56,12 +109,18 @@ public class ImageMatcher {
      * @return Match object if found, null otherwise
      */
     private Match waitForImageWithAdaptiveSimilarity(String imagePath, int timeoutSeconds) {
-        logger.info("Waiting for image with adaptive similarity: {}", imagePath);
+        if (!hasScreen("waitForImage")) {
+            return null;
+        }
+        long startNanos = System.nanoTime();
         
         if (!new File(imagePath).exists()) {
             logger.error("Image file does not exist: {}", imagePath);
             return null;
         }
+        events.publish(MatchEvent.Kind.STARTED, MatchEvent.Operation.WAIT, imagePath, similarity, 0, 0, 0);
+        
+        learnTemplateScale(imagePath);
         
         // Try with progressively lower similarity thresholds
         // This handles cases where images are scaled down or resolution changes
@@ -72,24 +131,25 @@ public class ImageMatcher {
         
         // First, try quick find() checks with all similarity levels (non-blocking)
         // This is much faster than wait() and helps identify the right similarity quickly
-        logger.debug("Performing quick find() checks with all similarity levels");
         for (double sim : similarityLevels) {
             try {
-                Pattern pattern = new Pattern(imagePath);
-                pattern.similar((float) sim);
+                Pattern pattern = createPattern(imagePath, sim);
                 Match match = screen.find(pattern);
                 if (match != null) {
-                    logger.info("Image found immediately at location: ({}, {}) with similarity: {}", 
-                        match.getX(), match.getY(), sim);
+                    events.publish(MatchEvent.Kind.MATCHED, MatchEvent.Operation.WAIT, imagePath, sim,
+                        match.getX(), match.getY(), System.nanoTime() - startNanos);
                     return match;
                 }
             } catch (FindFailed e) {
                 // Continue to next similarity level
+                events.publish(MatchEvent.Kind.MISSED, MatchEvent.Operation.WAIT, imagePath, sim,
+                    0, 0, System.nanoTime() - startNanos);
             }
             
             // Check if we've exceeded total timeout
             if (System.currentTimeMillis() - startTime > timeoutMillis) {
-                logger.warn("Timeout exceeded during quick find checks");
+                events.publish(MatchEvent.Kind.TIMED_OUT, MatchEvent.Operation.WAIT, imagePath, sim,
+                    0, 0, System.nanoTime() - startNanos);
                 return null;
             }
         }
@@ -99,8 +159,6 @@ public class ImageMatcher {
         long elapsed = System.currentTimeMillis() - startTime;
         long remainingTime = Math.max(1, (timeoutMillis - elapsed) / 1000); // Convert to seconds
         
-        logger.debug("Quick find failed, using wait() with remaining {} seconds", remainingTime);
-        
         // Try wait() with each similarity level, but use shorter timeouts per attempt
         // This prevents spending too much time on wrong similarity levels
         int timePerAttempt = Math.max(1, (int) (remainingTime / similarityLevels.length));
@@ -108,63 +166,99 @@ public class ImageMatcher {
         for (double sim : similarityLevels) {
             // Check if we still have time
             if (System.currentTimeMillis() - startTime > timeoutMillis) {
-                logger.warn("Timeout exceeded");
+                events.publish(MatchEvent.Kind.TIMED_OUT, MatchEvent.Operation.WAIT, imagePath, sim,
+                    0, 0, System.nanoTime() - startNanos);
                 return null;
             }
             
-            logger.debug("Trying wait() with similarity: {} (timeout: {}s)", sim, timePerAttempt);
-            
             try {
-                Pattern pattern = new Pattern(imagePath);
-                pattern.similar((float) sim);
+                Pattern pattern = createPattern(imagePath, sim);
                 
                 Match match = screen.wait(pattern, timePerAttempt);
                 if (match != null) {
-                    logger.info("Image found at location: ({}, {}) with similarity: {}", 
-                        match.getX(), match.getY(), sim);
+                    events.publish(MatchEvent.Kind.MATCHED, MatchEvent.Operation.WAIT, imagePath, sim,
+                        match.getX(), match.getY(), System.nanoTime() - startNanos);
                     return match;
                 }
             } catch (FindFailed e) {
-                logger.debug("Image not found with similarity {}: {}", sim, e.getMessage());
                 // Continue to next similarity level
+                events.publish(MatchEvent.Kind.MISSED, MatchEvent.Operation.WAIT, imagePath, sim,
+                    0, 0, System.nanoTime() - startNanos);
             }
         }
         
-        logger.warn("Image not found within {} seconds with any similarity threshold", timeoutSeconds);
+        events.publish(MatchEvent.Kind.NOT_FOUND, MatchEvent.Operation.WAIT, imagePath, 0,
+            0, 0, System.nanoTime() - startNanos);
         return null;
     }
     
     /**
      * Check if an image exists on screen with adaptive similarity.
+     * Once the template scale is known, absence is proven first from cheap score bounds on a
+     * single capture; the similarity tiers only run when the bounds cannot rule the image out.
      * @param imagePath Path to the image file
      * @return true if image is found, false otherwise
      */
     public boolean imageExists(String imagePath) {
-        logger.debug("Checking if image exists: {}", imagePath);
+        long startNanos = System.nanoTime();
         
         if (!new File(imagePath).exists()) {
             logger.error("Image file does not exist: {}", imagePath);
             return false;
         }
+        events.publish(MatchEvent.Kind.STARTED, MatchEvent.Operation.EXISTS, imagePath, similarity, 0, 0, 0);
+        
+        // The proof scores the template at its learned scale, so on a resized window it can only
+        // be trusted once the keypoint pass has confirmed one; until then that pass runs first.
+        // With a scale already known the pass is skipped, so a proven absence costs a single capture.
+        learnTemplateScale(imagePath);
+        boolean scaleKnown = !Config.FEATURE_MATCHING_ENABLED || templateScales.containsKey(imagePath);
+        
+        if (screen == null) {
+            // Frames are searched with the same grayscale score the proof bounds, so no margin is needed
+            if (Config.ABSENCE_PROOF_ENABLED && scaleKnown && proveAbsent(imagePath, similarity)) {
+                events.publish(MatchEvent.Kind.NOT_FOUND, MatchEvent.Operation.EXISTS, imagePath, similarity,
+                    0, 0, System.nanoTime() - startNanos);
+                return false;
+            }
+            MatchResult result = findInFrame(imagePath);
+            events.publish(result != null ? MatchEvent.Kind.MATCHED : MatchEvent.Kind.NOT_FOUND,
+                MatchEvent.Operation.EXISTS, imagePath, similarity,
+                result != null ? result.getX() : 0, result != null ? result.getY() : 0, System.nanoTime() - startNanos);
+            return result != null;
+        }
         
         // Try with multiple similarity levels
         double[] similarityLevels = {similarity, 0.7, 0.6, 0.5};
         
+        // Rule out even the lowest tier before running every tier. SikuliX scores color pixels,
+        // which the grayscale proof does not bound; the margin is a heuristic allowance for that
+        double absenceThreshold = Math.min(similarity, similarityLevels[similarityLevels.length - 1])
+            - Config.ABSENCE_PROOF_MARGIN;
+        if (Config.ABSENCE_PROOF_ENABLED && scaleKnown && proveAbsent(imagePath, absenceThreshold)) {
+            events.publish(MatchEvent.Kind.NOT_FOUND, MatchEvent.Operation.EXISTS, imagePath, absenceThreshold,
+                0, 0, System.nanoTime() - startNanos);
+            return false;
+        }
+        
         for (double sim : similarityLevels) {
             try {
-                Pattern pattern = new Pattern(imagePath);
-                pattern.similar((float) sim);
+                Pattern pattern = createPattern(imagePath, sim);
                 Match match = screen.find(pattern);
                 if (match != null) {
-                    logger.debug("Image found with similarity: {}", sim);
+                    events.publish(MatchEvent.Kind.MATCHED, MatchEvent.Operation.EXISTS, imagePath, sim,
+                        match.getX(), match.getY(), System.nanoTime() - startNanos);
                     return true;
                 }
             } catch (FindFailed e) {
                 // Continue to next similarity level
+                events.publish(MatchEvent.Kind.MISSED, MatchEvent.Operation.EXISTS, imagePath, sim,
+                    0, 0, System.nanoTime() - startNanos);
             }
         }
         
-        logger.debug("Image not found with any similarity threshold");
+        events.publish(MatchEvent.Kind.NOT_FOUND, MatchEvent.Operation.EXISTS, imagePath, 0,
+            0, 0, System.nanoTime() - startNanos);
         return false;
     }
     
@@ -174,59 +268,238 @@ public class ImageMatcher {
      * @return Match object if found, null otherwise
      */
     public Match findImage(String imagePath) {
-        logger.info("Searching for image: {}", imagePath);
+        if (!hasScreen("findImage")) {
+            return null;
+        }
+        long startNanos = System.nanoTime();
         
         if (!new File(imagePath).exists()) {
             logger.error("Image file does not exist: {}", imagePath);
             return null;
         }
+        events.publish(MatchEvent.Kind.STARTED, MatchEvent.Operation.FIND, imagePath, similarity, 0, 0, 0);
+        
+        learnTemplateScale(imagePath);
         
         // Try with multiple similarity levels
         double[] similarityLevels = {similarity, 0.7, 0.6, 0.5, 0.4};
         
         for (double sim : similarityLevels) {
             try {
-                Pattern pattern = new Pattern(imagePath);
-                pattern.similar((float) sim);
+                Pattern pattern = createPattern(imagePath, sim);
                 Match match = screen.find(pattern);
                 if (match != null) {
-                    logger.info("Image found at location: ({}, {}) with similarity: {}", 
-                        match.getX(), match.getY(), sim);
+                    events.publish(MatchEvent.Kind.MATCHED, MatchEvent.Operation.FIND, imagePath, sim,
+                        match.getX(), match.getY(), System.nanoTime() - startNanos);
                     return match;
                 }
             } catch (FindFailed e) {
-                logger.debug("Image not found with similarity {}: {}", sim, e.getMessage());
                 // Continue to next similarity level
+                events.publish(MatchEvent.Kind.MISSED, MatchEvent.Operation.FIND, imagePath, sim,
+                    0, 0, System.nanoTime() - startNanos);
             }
         }
         
-        logger.warn("Image not found with any similarity threshold");
+        events.publish(MatchEvent.Kind.NOT_FOUND, MatchEvent.Operation.FIND, imagePath, 0,
+            0, 0, System.nanoTime() - startNanos);
         return null;
     }
-    
+
+    /**
+     * Find up to k non-overlapping occurrences of an image, best first.
+     * Scores the whole screen once instead of searching once per occurrence, so several
+     * identical elements (e.g. a grid of game tiles) can be told apart by their rectangles.
+     * @param imagePath Path to the image file
+     * @param k Maximum number of matches
+     * @param minScore Minimum similarity score (0.0 to 1.0)
+     * @return Matches with exact scores ordered by descending score, empty if none found
+     */
+    public List<Match> findTopK(String imagePath, int k, double minScore) {
+        List<Match> matches = new ArrayList<>();
+        if (!hasScreen("findTopK")) {
+            return matches;
+        }
+        for (MatchResult result : findTopKResults(imagePath, k, minScore)) {
+            Region region = new Region(result.getX(), result.getY(), result.getWidth(), result.getHeight());
+            matches.add(new Match(region, result.getScore()));
+        }
+        return matches;
+    }
+
+    /**
+     * Find up to k non-overlapping occurrences of an image, best first, like {@link #findTopK},
+     * on the SikuliX screen or on a custom screen source.
+     * @param imagePath Path to the image file
+     * @param k Maximum number of matches
+     * @param minScore Minimum similarity score (0.0 to 1.0)
+     * @return Matches in screen coordinates ordered by descending score, empty if none found
+     */
+    public List<MatchResult> findTopKResults(String imagePath, int k, double minScore) {
+        long startNanos = System.nanoTime();
+        List<MatchResult> matches = new ArrayList<>();
+        
+        if (!new File(imagePath).exists()) {
+            logger.error("Image file does not exist: {}", imagePath);
+            return matches;
+        }
+        events.publish(MatchEvent.Kind.STARTED, MatchEvent.Operation.TOP_K, imagePath, minScore, 0, 0, 0);
+        
+        learnTemplateScale(imagePath);
+        
+        try {
+            BufferedImage capture = screenSource.capture();
+            int originX = screen == null ? 0 : screen.getX();
+            int originY = screen == null ? 0 : screen.getY();
+            for (MatchResult result : templateMatcher.findTopK(imagePath, getTemplateScale(imagePath), capture, k, minScore)) {
+                matches.add(new MatchResult(originX + result.getX(), originY + result.getY(),
+                    result.getWidth(), result.getHeight(), result.getScore(), result.getScale()));
+            }
+        } catch (Exception e) {
+            logger.error("Top-K search failed: {}", e.getMessage());
+            events.publish(MatchEvent.Kind.NOT_FOUND, MatchEvent.Operation.TOP_K, imagePath, minScore,
+                0, 0, System.nanoTime() - startNanos);
+            return new ArrayList<>();
+        }
+        
+        if (matches.isEmpty()) {
+            events.publish(MatchEvent.Kind.NOT_FOUND, MatchEvent.Operation.TOP_K, imagePath, minScore,
+                0, 0, System.nanoTime() - startNanos);
+        } else {
+            MatchResult best = matches.get(0);
+            events.publish(MatchEvent.Kind.MATCHED, MatchEvent.Operation.TOP_K, imagePath, best.getScore(),
+                best.getX(), best.getY(), System.nanoTime() - startNanos);
+        }
+        return matches;
+    }
+
+    /**
+     * Find an image on screen at any scale using keypoint matching.
+     * The estimated scale is remembered and used to resize the template for later lookups.
+     * @param imagePath Path to the image file
+     * @return Match object if found, null otherwise
+     */
+    public Match findImageByFeatures(String imagePath) {
+        if (!hasScreen("findImageByFeatures")) {
+            return null;
+        }
+        logger.info("Searching for image by keypoints: {}", imagePath);
+
+        if (!new File(imagePath).exists()) {
+            logger.error("Image file does not exist: {}", imagePath);
+            return null;
+        }
+
+        MatchResult result = matchFeatures(imagePath);
+        if (result == null) {
+            logger.warn("Image not found by keypoint matching");
+            return null;
+        }
+
+        logger.info("Image found by keypoints at location: ({}, {}) with scale: {}",
+            result.getX(), result.getY(), result.getScale());
+        Region region = new Region(screen.getX() + result.getX(), screen.getY() + result.getY(),
+            result.getWidth(), result.getHeight());
+        return new Match(region, result.getScore());
+    }
+
     /**
      * Click on an image when it appears on screen with adaptive similarity.
+     * Waits until the click has been delivered.
      * @param imagePath Path to the image file
      * @param timeoutSeconds Maximum time to wait in seconds
      * @return true if click was successful, false otherwise
      */
     public boolean clickImage(String imagePath, int timeoutSeconds) {
-        logger.info("Attempting to click image with adaptive similarity: {}", imagePath);
-        
-        Match match = waitForImageWithAdaptiveSimilarity(imagePath, timeoutSeconds);
-        if (match != null) {
-            try {
-                match.click();
-                logger.info("Successfully clicked image at location: ({}, {})", match.getX(), match.getY());
-                return true;
-            } catch (Exception e) {
-                logger.error("Failed to click image: {}", e.getMessage());
-                return false;
-            }
+        return clickImageAsync(imagePath, timeoutSeconds).join();
+    }
+    
+    /**
+     * Search for an image and queue a click on it without waiting for the click to be delivered.
+     * The caller can start the next search while the input dispatcher performs the click.
+     * @param imagePath Path to the image file
+     * @param timeoutSeconds Maximum time to wait for the image in seconds
+     * @return Future completed with true once clicked, false if not found or the click failed
+     */
+    public CompletableFuture<Boolean> clickImageAsync(String imagePath, int timeoutSeconds) {
+        logger.debug("Attempting to click image with adaptive similarity: {}", imagePath);
+        return dispatchOnImage(imagePath, timeoutSeconds, InputAction.Type.CLICK);
+    }
+    
+    /**
+     * Search for an image and queue a double-click on it.
+     * @param imagePath Path to the image file
+     * @param timeoutSeconds Maximum time to wait for the image in seconds
+     * @return Future completed with true once double-clicked, false if not found or the action failed
+     */
+    public CompletableFuture<Boolean> doubleClickImageAsync(String imagePath, int timeoutSeconds) {
+        logger.debug("Attempting to double-click image with adaptive similarity: {}", imagePath);
+        return dispatchOnImage(imagePath, timeoutSeconds, InputAction.Type.DOUBLE_CLICK);
+    }
+    
+    /**
+     * Search for an image and queue a mouse move onto it.
+     * @param imagePath Path to the image file
+     * @param timeoutSeconds Maximum time to wait for the image in seconds
+     * @return Future completed with true once hovered, false if not found or the move failed
+     */
+    public CompletableFuture<Boolean> hoverImageAsync(String imagePath, int timeoutSeconds) {
+        logger.debug("Attempting to hover image with adaptive similarity: {}", imagePath);
+        return dispatchOnImage(imagePath, timeoutSeconds, InputAction.Type.MOVE);
+    }
+    
+    /**
+     * Find an image and hand an action on its center to the input dispatcher.
+     * @param imagePath Path to the image file
+     * @param timeoutSeconds Maximum time to wait for the image in seconds
+     * @param type Action to perform
+     * @return Future completed with the outcome of the action
+     */
+    private CompletableFuture<Boolean> dispatchOnImage(String imagePath, int timeoutSeconds, InputAction.Type type) {
+        MatchResult match = locate(imagePath, timeoutSeconds);
+        if (match == null) {
+            logger.warn("Cannot perform {} - image not found with any similarity threshold", type);
+            return CompletableFuture.completedFuture(false);
         }
         
-        logger.warn("Cannot click image - image not found with any similarity threshold");
-        return false;
+        return dispatchAt(match.getCenterX(), match.getCenterY(), type);
+    }
+    
+    /**
+     * Queue a click on an already found match, e.g. one of the results of {@link #findTopK}.
+     * @param match Match to click
+     * @return Future completed with true once clicked, false if the click failed
+     */
+    public CompletableFuture<Boolean> clickMatchAsync(Match match) {
+        Location target = match.getCenter();
+        return dispatchAt(target.getX(), target.getY(), InputAction.Type.CLICK);
+    }
+    
+    /**
+     * Queue a click on an already found match, e.g. one of the results of {@link #findTopKResults}.
+     * @param match Match to click, in screen coordinates
+     * @return Future completed with true once clicked, false if the click failed
+     */
+    public CompletableFuture<Boolean> clickMatchAsync(MatchResult match) {
+        return dispatchAt(match.getCenterX(), match.getCenterY(), InputAction.Type.CLICK);
+    }
+    
+    /**
+     * Hand an action at the given screen location to the input dispatcher.
+     * @param x Target X coordinate
+     * @param y Target Y coordinate
+     * @param type Action to perform
+     * @return Future completed with the outcome of the action
+     */
+    private CompletableFuture<Boolean> dispatchAt(int x, int y, InputAction.Type type) {
+        return inputDispatcher.submit(new InputAction(type, x, y))
+            .handle((ignored, error) -> {
+                if (error != null) {
+                    logger.error("Failed to perform {} on image: {}", type, error.getMessage());
+                    return false;
+                }
+                logger.debug("Successfully performed {} at location: ({}, {})", type, x, y);
+                return true;
+            });
     }
     
     /**
@@ -238,14 +511,14 @@ public class ImageMatcher {
      * @return Match object if found, null otherwise
      */
     public Match waitForImageWithRetry(String imagePath, int timeoutSeconds, int maxRetries) {
-        logger.info("Waiting for image with retry logic: {} (max retries: {})", imagePath, maxRetries);
+        logger.debug("Waiting for image with retry logic: {} (max retries: {})", imagePath, maxRetries);
         
         for (int attempt = 1; attempt <= maxRetries; attempt++) {
             logger.debug("Attempt {}/{} to find image", attempt, maxRetries);
             
             Match match = waitForImageWithAdaptiveSimilarity(imagePath, timeoutSeconds);
             if (match != null) {
-                logger.info("Image found on attempt {}", attempt);
+                logger.debug("Image found on attempt {}", attempt);
                 return match;
             }
             
@@ -264,6 +537,225 @@ public class ImageMatcher {
         return null;
     }
     
+    /**
+     * Wait for an image and return where it is, using SikuliX or the frame source.
+     * @param imagePath Path to the image file
+     * @param timeoutSeconds Maximum time to wait in seconds
+     * @return Match result in screen coordinates, or null if not found
+     */
+    private MatchResult locate(String imagePath, int timeoutSeconds) {
+        if (screen != null) {
+            Match match = waitForImageWithAdaptiveSimilarity(imagePath, timeoutSeconds);
+            return match == null ? null
+                : new MatchResult(match.getX(), match.getY(), match.getW(), match.getH(), match.getScore());
+        }
+        
+        long startNanos = System.nanoTime();
+        long deadline = startNanos + timeoutSeconds * 1_000_000_000L;
+        
+        if (!new File(imagePath).exists()) {
+            logger.error("Image file does not exist: {}", imagePath);
+            return null;
+        }
+        events.publish(MatchEvent.Kind.STARTED, MatchEvent.Operation.WAIT, imagePath, similarity, 0, 0, 0);
+        
+        while (true) {
+            MatchResult result = findInFrame(imagePath);
+            if (result == null) {
+                // The element may not have been on screen yet - keep trying until a scale is confirmed
+                result = learnTemplateScale(imagePath);
+            }
+            if (result != null) {
+                events.publish(MatchEvent.Kind.MATCHED, MatchEvent.Operation.WAIT, imagePath, result.getScore(),
+                    result.getX(), result.getY(), System.nanoTime() - startNanos);
+                return result;
+            }
+            events.publish(MatchEvent.Kind.MISSED, MatchEvent.Operation.WAIT, imagePath, similarity,
+                0, 0, System.nanoTime() - startNanos);
+            
+            if (System.nanoTime() >= deadline) {
+                events.publish(MatchEvent.Kind.TIMED_OUT, MatchEvent.Operation.WAIT, imagePath, similarity,
+                    0, 0, System.nanoTime() - startNanos);
+                return null;
+            }
+            try {
+                Thread.sleep(Config.FRAME_POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("Waiting for image interrupted");
+                events.publish(MatchEvent.Kind.NOT_FOUND, MatchEvent.Operation.WAIT, imagePath, similarity,
+                    0, 0, System.nanoTime() - startNanos);
+                return null;
+            }
+        }
+    }
+    
+    /**
+     * Search the current frame of the screen source for the best occurrence of an image.
+     * @param imagePath Path to the image file
+     * @return Best match at or above the similarity threshold, or null if none
+     */
+    private MatchResult findInFrame(String imagePath) {
+        List<MatchResult> results = templateMatcher.findTopK(
+            imagePath, getTemplateScale(imagePath), screenSource.capture(), 1, similarity);
+        return results.isEmpty() ? null : results.get(0);
+    }
+    
+    /**
+     * Prove from score bounds on the current frame that an image reaches the threshold nowhere.
+     * @param imagePath Path to the image file
+     * @param threshold Score no position may reach
+     * @return true if the image is proven absent, false if it may be present or the check failed
+     */
+    private boolean proveAbsent(String imagePath, double threshold) {
+        try {
+            return templateMatcher.proveAbsent(imagePath, getTemplateScale(imagePath), screenSource.capture(), threshold);
+        } catch (Exception e) {
+            logger.warn("Absence check failed: {}", e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Check that this matcher drives a SikuliX screen, logging an error otherwise.
+     * @param method Name of the calling method, for the log message
+     * @return true if a SikuliX screen is available
+     */
+    private boolean hasScreen(String method) {
+        if (screen == null) {
+            logger.error("{} requires a SikuliX screen and is unavailable with a custom screen source", method);
+            return false;
+        }
+        return true;
+    }
+    
+    /**
+     * Get the template scale learned by keypoint matching.
+     * @param imagePath Path to the image file
+     * @return Learned scale factor, or 1.0 if none has been learned yet
+     */
+    public double getTemplateScale(String imagePath) {
+        return templateScales.getOrDefault(imagePath, 1.0f);
+    }
+
+    /**
+     * Forget all learned template scales, e.g. after the launcher window was resized again.
+     */
+    public void clearTemplateScales() {
+        templateScales.clear();
+        failedScaleEstimates.clear();
+        logger.info("Cleared learned template scales");
+    }
+
+    /**
+     * Create a pattern for the given similarity, resized to the learned template scale.
+     * @param imagePath Path to the image file
+     * @param sim Similarity threshold
+     * @return Pattern ready for searching
+     */
+    private Pattern createPattern(String imagePath, double sim) {
+        Pattern pattern = new Pattern(imagePath);
+        pattern.similar((float) sim);
+        Float scale = templateScales.get(imagePath);
+        if (scale != null) {
+            pattern.resize(scale);
+        }
+        return pattern;
+    }
+
+    /**
+     * Estimate the template scale with one keypoint matching pass, unless already known.
+     * With the right scale the high similarity thresholds match, so the ladder exits early.
+     * After a failed pass, e.g. because the image is not on screen, the pass is skipped
+     * until its retry backoff has passed.
+     * @param imagePath Path to the image file
+     * @return Confirmed match found by the pass, or null if none was run or it found nothing
+     */
+    private MatchResult learnTemplateScale(String imagePath) {
+        if (!Config.FEATURE_MATCHING_ENABLED || templateScales.containsKey(imagePath)) {
+            return null;
+        }
+        FailedScaleEstimate failed = failedScaleEstimates.get(imagePath);
+        if (failed != null && System.nanoTime() - failed.retryAtNanos < 0) {
+            return null;
+        }
+        return matchFeatures(imagePath);
+    }
+
+    /**
+     * Run keypoint matching against a fresh screen capture and remember the estimated scale
+     * once an exact search at that scale confirms it.
+     * @param imagePath Path to the image file
+     * @return Confirmed match in screen-relative coordinates, or null if not found
+     */
+    private MatchResult matchFeatures(String imagePath) {
+        MatchResult confirmed = null;
+        try {
+            BufferedImage capture = screenSource.capture();
+            MatchResult result = featureMatcher.match(imagePath, capture);
+            if (result != null) {
+                // Scales within 2% of the original are capture noise - keep the template as is
+                float scale = Math.abs(result.getScale() - 1.0) < 0.02 ? 1.0f : (float) result.getScale();
+                // A wrong scale would break every later lookup, so confirm it with an exact search first
+                confirmed = confirmScale(imagePath, scale, capture, result);
+                if (confirmed == null) {
+                    logger.debug("Keypoint match for {} at scale {} not confirmed", imagePath, scale);
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Keypoint matching failed: {}", e.getMessage());
+        }
+        
+        if (confirmed == null) {
+            recordFailedScaleEstimate(imagePath);
+            return null;
+        }
+        failedScaleEstimates.remove(imagePath);
+        templateScales.put(imagePath, (float) confirmed.getScale());
+        logger.debug("Learned template scale {} for {}", confirmed.getScale(), imagePath);
+        return confirmed;
+    }
+
+    /**
+     * Search for the resized template right around a keypoint match, with SikuliX or,
+     * for a custom screen source, with an exact score on the captured frame.
+     * @param imagePath Path to the image file
+     * @param scale Estimated template scale
+     * @param capture Frame the keypoint match was found in
+     * @param result Keypoint match in screen-relative coordinates
+     * @return Match at or above the similarity threshold in screen-relative coordinates, or null if none
+     */
+    private MatchResult confirmScale(String imagePath, float scale, BufferedImage capture, MatchResult result) {
+        if (screen == null) {
+            MatchResult scored = templateMatcher.scoreNear(imagePath, scale, capture,
+                result.getX(), result.getY(), SCALE_CONFIRM_RADIUS);
+            return scored == null || scored.getScore() < similarity ? null : scored;
+        }
+        int left = Math.max(0, result.getX() - SCALE_CONFIRM_RADIUS);
+        int top = Math.max(0, result.getY() - SCALE_CONFIRM_RADIUS);
+        int right = Math.min(screen.getW(), result.getX() + result.getWidth() + SCALE_CONFIRM_RADIUS);
+        int bottom = Math.min(screen.getH(), result.getY() + result.getHeight() + SCALE_CONFIRM_RADIUS);
+        Region around = new Region(screen.getX() + left, screen.getY() + top, right - left, bottom - top);
+        Match match = around.exists(new Pattern(imagePath).similar((float) similarity).resize(scale), 0);
+        if (match == null) {
+            return null;
+        }
+        return new MatchResult(match.getX() - screen.getX(), match.getY() - screen.getY(),
+            match.getW(), match.getH(), match.getScore(), scale);
+    }
+
+    /**
+     * Remember a failed keypoint pass, doubling the time until the next attempt.
+     * @param imagePath Path to the image file
+     */
+    private void recordFailedScaleEstimate(String imagePath) {
+        FailedScaleEstimate previous = failedScaleEstimates.get(imagePath);
+        long backoffMillis = previous == null ? Config.FEATURE_RETRY_BACKOFF_MILLIS
+            : Math.min(previous.backoffMillis * 2, Config.FEATURE_RETRY_MAX_BACKOFF_MILLIS);
+        failedScaleEstimates.put(imagePath,
+            new FailedScaleEstimate(System.nanoTime() + backoffMillis * 1_000_000L, backoffMillis));
+    }
+
     /**
      * Set the similarity threshold for image matching.
      * @param similarity Similarity threshold (0.0 to 1.0)
@@ -286,12 +778,65 @@ public class ImageMatcher {
         return similarity;
     }
     
+    /**
+     * Get the dispatcher delivering this matcher's mouse actions.
+     * @return InputDispatcher instance
+     */
+    public InputDispatcher getInputDispatcher() {
+        return inputDispatcher;
+    }
+    
+    /**
+     * Deliver the mouse actions still queued and stop the input dispatcher thread.
+     * Actions submitted afterwards fail.
+     */
+    @Override
+    public void close() {
+        inputDispatcher.close();
+    }
+    
+    /**
+     * Get the pure-Java template matcher, e.g. to read its absence proof counters.
+     * @return TemplateMatcher instance
+     */
+    public TemplateMatcher getTemplateMatcher() {
+        return templateMatcher;
+    }
+    
+    /**
+     * Get the log receiving this matcher's per-attempt events.
+     * @return MatchEventLog instance
+     */
+    public MatchEventLog getMatchEventLog() {
+        return events;
+    }
+    
+    /**
+     * Get the source of the frames searched by the pure-Java matchers.
+     * @return ScreenSource instance
+     */
+    public ScreenSource getScreenSource() {
+        return screenSource;
+    }
+    
     /**
      * Get the Screen instance.
-     * @return Screen instance
+     * @return Screen instance, or null when matching against a custom screen source
      */
     public Screen getScreen() {
         return screen;
     }
-}
 
+    /**
+     * Keypoint pass that did not yield a confirmed scale, and when to try again.
+     */
+    private static final class FailedScaleEstimate {
+        final long retryAtNanos;
+        final long backoffMillis;
+
+        FailedScaleEstimate(long retryAtNanos, long backoffMillis) {
+            this.retryAtNanos = retryAtNanos;
+            this.backoffMillis = backoffMillis;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.roboclicker.util;
+
+/**
+ * Immutable result of a pure-Java template search.
+ * Holds the matched rectangle in scene coordinates, its score and the scale
+ * at which the template was found.
+ */
+public final class MatchResult {
+
+    private final int x;
+    private final int y;
+    private final int width;
+    private final int height;
+    private final double score;
+    private final double scale;
+
+    /**
+     * Constructor for a match found at the template's original scale.
+     * @param x Left edge of the match
+     * @param y Top edge of the match
+     * @param width Width of the match
+     * @param height Height of the match
+     * @param score Match score (0.0 to 1.0)
+     */
+    public MatchResult(int x, int y, int width, int height, double score) {
+        this(x, y, width, height, score, 1.0);
+    }
+
+    /**
+     * Constructor for a match found at an arbitrary scale.
+     * @param x Left edge of the match
+     * @param y Top edge of the match
+     * @param width Width of the match
+     * @param height Height of the match
+     * @param score Match score (0.0 to 1.0)
+     * @param scale Size of the match relative to the template
+     */
+    public MatchResult(int x, int y, int width, int height, double score, double scale) {
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+        this.score = score;
+        this.scale = scale;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public double getScale() {
+        return scale;
+    }
+
+    /**
+     * Get the horizontal center of the match, i.e. where a click would land.
+     * @return Center X coordinate
+     */
+    public int getCenterX() {
+        return x + width / 2;
+    }
+
+    /**
+     * Get the vertical center of the match, i.e. where a click would land.
+     * @return Center Y coordinate
+     */
+    public int getCenterY() {
+        return y + height / 2;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MatchResult[x=%d, y=%d, w=%d, h=%d, score=%.3f, scale=%.3f]",
+            x, y, width, height, score, scale);
+    }
+}
@@ -0,0 +1,357 @@
+package com.roboclicker.util;
+
+import java.util.Arrays;
+
+/**
+ * Upper bounds on the zero-mean NCC of a template at every position of a square, computed
+ * from the cell statistics of a coarse pyramid level (see {@link CellTable}). The template is
+ * split into square blocks, and across the square a block only ever lands inside the union of
+ * its placements, rounded out to whole cells. Edge blocks only count their template pixels.
+ * <p>
+ * Two bounds are kept. The flat-area bound picks the value most flat unions share - the
+ * launcher background - and notes that blocks landing on it add nothing to the covariance
+ * when the scene is measured from that value, while blocks landing on another flat value add
+ * only their mean deviation. Cauchy-Schwarz over the remaining pixels then bounds the score by
+ * the share of template deviation that lands on scene detail, scaled up for the part of the
+ * window that is not background. The covariance bound bounds each block's scene deviations by
+ * those of its whole union, with the union mean contributing exactly, and compares the sum
+ * against the deviations all windows of the square share; it is the tighter one where the
+ * template covers busy parts of the scene.
+ * <p>
+ * Blocks whose union is not flat are split into quarters, down to the cell side; on launcher
+ * screens most unions are flat, so only the blocks crossing an edge cost more than one lookup.
+ */
+final class RegionBound {
+
+    // Block side of the coarsest level; each level halves it
+    private final int blockSize;
+    private final int[] columns;
+    private final int[] rows;
+    // Norm of the template deviations from the mean of the whole template, per level and block
+    private final double[][] deviation;
+    // Sum of the template deviations from the mean of the whole template, per level and block
+    private final double[][] offset;
+    // Number of template pixels, per level and block
+    private final int[][] pixels;
+    private final int templateArea;
+    // Sum of the squared template deviations from its mean
+    private final double templateVariance;
+
+    /**
+     * Precompute the template statistics of every block level.
+     * @param template Template image
+     * @param blockSize Block side of the coarsest level in pixels, a power of two
+     * @param minBlockSize Block side of the finest level in pixels, a power of two
+     */
+    RegionBound(GrayImage template, int blockSize, int minBlockSize) {
+        this.blockSize = blockSize;
+        int levels = Integer.numberOfTrailingZeros(blockSize) - Integer.numberOfTrailingZeros(minBlockSize) + 1;
+        this.columns = new int[levels];
+        this.rows = new int[levels];
+        this.deviation = new double[levels][];
+        this.offset = new double[levels][];
+        this.pixels = new int[levels][];
+        this.templateArea = template.width() * template.height();
+
+        double templateMean = (double) template.boxSum(0, 0, template.width(), template.height()) / templateArea;
+        double variance = 0;
+        for (int level = 0; level < levels; level++) {
+            int size = blockSize >> level;
+            columns[level] = (template.width() + size - 1) / size;
+            rows[level] = (template.height() + size - 1) / size;
+            deviation[level] = new double[columns[level] * rows[level]];
+            offset[level] = new double[columns[level] * rows[level]];
+            pixels[level] = new int[columns[level] * rows[level]];
+            int i = 0;
+            for (int row = 0; row < rows[level]; row++) {
+                int y = row * size;
+                int h = Math.min(size, template.height() - y);
+                for (int col = 0; col < columns[level]; col++) {
+                    int x = col * size;
+                    int w = Math.min(size, template.width() - x);
+                    long sum = template.boxSum(x, y, w, h);
+                    double squaredDeviation = Math.max(0, template.boxSumOfSquares(x, y, w, h)
+                        - 2 * templateMean * sum + w * h * templateMean * templateMean);
+                    deviation[level][i] = Math.sqrt(squaredDeviation);
+                    offset[level][i] = sum - w * h * templateMean;
+                    pixels[level][i] = w * h;
+                    if (level == 0) {
+                        variance += squaredDeviation;
+                    }
+                    i++;
+                }
+            }
+        }
+        this.templateVariance = variance;
+    }
+
+    /**
+     * Where the template lands on flat scene areas across a square of positions. A block whose
+     * union is flat across a square is flat, at the same value, across each of its halves, so
+     * the halves start from the square's blocks that still cross detail.
+     */
+    static final class FlatAreas {
+        private int background = -1;
+        // Squared template deviations that can only line up with flat areas off the
+        // background, and the template pixels landing on those areas
+        private double flatEnergy;
+        private double flatPixels;
+        // Blocks whose union crosses scene detail, all of one level
+        private int level;
+        private int[] detail;
+        private int count;
+    }
+
+    /**
+     * Upper bound on the score at every position whose top-left corner lies in one cell of
+     * the table, from where the template lands on flat scene areas. Blocks crossing detail are
+     * split one level at a time, so a square the coarser blocks already rule out costs no finer
+     * lookups, and splitting stops once the bound drops below the threshold.
+     * @param cells Cell table whose step divides the coarsest block side
+     * @param cellX Column of the cell holding the square of positions
+     * @param cellY Row of the cell holding the square of positions
+     * @param threshold Score below which the caller rules the square out
+     * @param enclosing Flat areas of a square holding this one, or null to start from scratch
+     * @param areas Receives the flat areas of this square
+     * @return Value no smaller than the score at any position of the cell
+     */
+    double scoreBound(CellTable cells, int cellX, int cellY, double threshold, FlatAreas enclosing,
+                      FlatAreas areas) {
+        double[] scratch = new double[2];
+        if (enclosing == null) {
+            findFlatAreas(cells, cellX, cellY, areas, scratch);
+        } else {
+            areas.background = enclosing.background;
+            areas.flatEnergy = enclosing.flatEnergy;
+            areas.flatPixels = enclosing.flatPixels;
+            areas.level = enclosing.level;
+            areas.detail = new int[enclosing.count];
+            areas.count = 0;
+            for (int k = 0; k < enclosing.count; k++) {
+                addBlock(cells, cellX, cellY, areas, enclosing.detail[k], scratch);
+            }
+        }
+        double detailEnergy = 0;
+        double detailPixels = 0;
+        for (int k = 0; k < areas.count; k++) {
+            detailEnergy += deviation[areas.level][areas.detail[k]] * deviation[areas.level][areas.detail[k]];
+            detailPixels += pixels[areas.level][areas.detail[k]];
+        }
+        if (flatScore(areas.flatEnergy, areas.flatPixels) >= threshold) {
+            // Even if every block crossing detail turned out to lie on background, the flat
+            // areas off it keep the bound above the threshold
+            return flatScore(areas.flatEnergy + detailEnergy, areas.flatPixels + detailPixels);
+        }
+
+        int finest = finestLevel(cells);
+        while (areas.level < finest && areas.count > 0
+            && flatScore(areas.flatEnergy + detailEnergy, areas.flatPixels + detailPixels) >= threshold) {
+            int level = areas.level;
+            int[] blocks = Arrays.copyOf(areas.detail, areas.count);
+            areas.level = level + 1;
+            areas.detail = new int[4 * blocks.length];
+            areas.count = 0;
+            for (int i : blocks) {
+                int row = i / columns[level];
+                int col = i % columns[level];
+                for (int childRow = 2 * row; childRow <= 2 * row + 1 && childRow < rows[level + 1]; childRow++) {
+                    for (int childCol = 2 * col; childCol <= 2 * col + 1 && childCol < columns[level + 1]; childCol++) {
+                        addBlock(cells, cellX, cellY, areas, childRow * columns[level + 1] + childCol, scratch);
+                    }
+                }
+            }
+            detailEnergy = 0;
+            detailPixels = 0;
+            for (int k = 0; k < areas.count; k++) {
+                detailEnergy += deviation[areas.level][areas.detail[k]] * deviation[areas.level][areas.detail[k]];
+                detailPixels += pixels[areas.level][areas.detail[k]];
+            }
+        }
+        return flatScore(areas.flatEnergy + detailEnergy, areas.flatPixels + detailPixels);
+    }
+
+    /**
+     * Classify the coarsest blocks, taking the value most flat unions share as the background.
+     */
+    private void findFlatAreas(CellTable cells, int cellX, int cellY, FlatAreas areas, double[] scratch) {
+        int span = blockSize / cells.step;
+        int blocks = deviation[0].length;
+        double[] means = new double[blocks];
+        boolean[] flat = new boolean[blocks];
+        // Gray values are whole numbers, so a flat union's mean is one of 256 values
+        int[] flatPixels = new int[256];
+        int background = -1;
+        for (int row = 0, i = 0; row < rows[0]; row++) {
+            for (int col = 0; col < columns[0]; col++, i++) {
+                int index = unionStatistics(cells, cellX + col * span, cellY + row * span, span, scratch);
+                double[] statistics = index < 0 ? scratch : cells.boxStatistics(span + 1);
+                index = Math.max(0, index);
+                means[i] = statistics[index];
+                flat[i] = statistics[index + 1] == 0;
+                if (flat[i]) {
+                    int value = (int) means[i];
+                    flatPixels[value] += pixels[0][i];
+                    if (background < 0 || flatPixels[value] > flatPixels[background]) {
+                        background = value;
+                    }
+                }
+            }
+        }
+
+        areas.background = background;
+        areas.flatEnergy = 0;
+        areas.flatPixels = 0;
+        areas.level = 0;
+        areas.detail = new int[blocks];
+        areas.count = 0;
+        for (int i = 0; i < blocks; i++) {
+            if (flat[i]) {
+                addFlatBlock(areas, 0, i, means[i]);
+            } else {
+                areas.detail[areas.count++] = i;
+            }
+        }
+    }
+
+    /**
+     * Look up one block of the current level and file it as flat or as crossing detail.
+     */
+    private void addBlock(CellTable cells, int cellX, int cellY, FlatAreas areas, int i, double[] scratch) {
+        int span = (blockSize >> areas.level) / cells.step;
+        int col = i % columns[areas.level];
+        int row = i / columns[areas.level];
+        int index = unionStatistics(cells, cellX + col * span, cellY + row * span, span, scratch);
+        double[] statistics = index < 0 ? scratch : cells.boxStatistics(span + 1);
+        index = Math.max(0, index);
+        if (statistics[index + 1] == 0) {
+            addFlatBlock(areas, areas.level, i, statistics[index]);
+        } else {
+            areas.detail[areas.count++] = i;
+        }
+    }
+
+    private void addFlatBlock(FlatAreas areas, int level, int i, double value) {
+        if (value != areas.background) {
+            // Only the block's mean deviation can line up with a flat area
+            areas.flatEnergy += offset[level][i] * offset[level][i] / pixels[level][i];
+            areas.flatPixels += pixels[level][i];
+        }
+    }
+
+    /**
+     * Bound the score from the template deviations that may meet anything but background.
+     * @param energy Sum of those squared deviations
+     * @param offBackground Number of template pixels that may land off the background
+     */
+    private double flatScore(double energy, double offBackground) {
+        double background = templateArea - offBackground;
+        if (background <= 0) {
+            return 1;
+        }
+        return Math.sqrt(energy * templateArea / (templateVariance * background));
+    }
+
+    /**
+     * Upper bound on the covariance sum between the template and every window whose top-left
+     * corner lies in one cell of the table. Splitting stops once the bound drops below the limit.
+     * @param cells Cell table whose step divides the coarsest block side
+     * @param cellX Column of the cell holding the square of positions
+     * @param cellY Row of the cell holding the square of positions
+     * @param limit Bound below which the caller rules the square out
+     * @return Value no smaller than the exact covariance sum at any position of the cell
+     */
+    double covarianceBound(CellTable cells, int cellX, int cellY, double limit) {
+        int finest = finestLevel(cells);
+        double[] bounds = new double[deviation[0].length];
+        double[] scratch = new double[2];
+        double total = 0;
+        for (int row = 0, i = 0; row < rows[0]; row++) {
+            for (int col = 0; col < columns[0]; col++, i++) {
+                bounds[i] = blockBound(cells, cellX, cellY, 0, col, row, finest, false, scratch);
+                total += bounds[i];
+            }
+        }
+        if (finest == 0) {
+            return total;
+        }
+        for (int row = 0, i = 0; row < rows[0] && total >= limit; row++) {
+            for (int col = 0; col < columns[0] && total >= limit; col++, i++) {
+                total += blockBound(cells, cellX, cellY, 0, col, row, finest, true, scratch) - bounds[i];
+            }
+        }
+        return total;
+    }
+
+    private double blockBound(CellTable cells, int cellX, int cellY, int level, int col, int row,
+                              int finest, boolean split, double[] scratch) {
+        int i = row * columns[level] + col;
+        if (deviation[level][i] == 0) {
+            // A block matching the template mean exactly adds nothing
+            return 0;
+        }
+        int span = (blockSize >> level) / cells.step;
+        int index = unionStatistics(cells, cellX + col * span, cellY + row * span, span, scratch);
+        double[] statistics = index < 0 ? scratch : cells.boxStatistics(span + 1);
+        index = Math.max(0, index);
+        double mean = statistics[index];
+        double unionDeviation = statistics[index + 1];
+        if (unionDeviation == 0) {
+            // Flat union - the mean term is exact
+            return offset[level][i] * mean;
+        }
+        double bound = offset[level][i] * mean + deviation[level][i] * unionDeviation;
+        if (!split || level == finest) {
+            return bound;
+        }
+        double quarters = 0;
+        for (int childRow = 2 * row; childRow <= 2 * row + 1 && childRow < rows[level + 1]; childRow++) {
+            for (int childCol = 2 * col; childCol <= 2 * col + 1 && childCol < columns[level + 1]; childCol++) {
+                quarters += blockBound(cells, cellX, cellY, level + 1, childCol, childRow, finest, true, scratch);
+            }
+        }
+        return Math.min(bound, quarters);
+    }
+
+    /**
+     * Look up the statistics of the union of a block's placements.
+     * @param span Block side in cells
+     * @param scratch Receives the statistics when the table does not keep them
+     * @return Index of the union mean in the table's kept statistics, or -1 if it is in scratch
+     */
+    private static int unionStatistics(CellTable cells, int left, int top, int span, double[] scratch) {
+        double[] statistics = cells.boxStatistics(span + 1);
+        if (statistics == null) {
+            cells.computeBoxStatistics(span + 1, left, top, scratch, 0);
+            return -1;
+        }
+        int index = 2 * (top * cells.stride + left);
+        if (Double.isNaN(statistics[index])) {
+            cells.computeBoxStatistics(span + 1, left, top, statistics, index);
+        }
+        return index;
+    }
+
+    /**
+     * Get the finest block level a cell table can bound, whose side is still a multiple of the cell side.
+     */
+    private int finestLevel(CellTable cells) {
+        return Math.min(deviation.length - 1,
+            Integer.numberOfTrailingZeros(blockSize) - Integer.numberOfTrailingZeros(cells.step));
+    }
+
+    /**
+     * Get the padded template width.
+     * @return Width of the coarsest block grid in pixels
+     */
+    int paddedWidth() {
+        return columns[0] * blockSize;
+    }
+
+    /**
+     * Get the padded template height.
+     * @return Height of the coarsest block grid in pixels
+     */
+    int paddedHeight() {
+        return rows[0] * blockSize;
+    }
+}
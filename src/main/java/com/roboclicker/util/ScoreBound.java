@@ -0,0 +1,111 @@
+package com.roboclicker.util;
+
+/**
+ * Upper bound on the zero-mean NCC numerator of a template, computed from block statistics only.
+ * The template is split into a grid of blocks. Within each block, Cauchy-Schwarz bounds the
+ * correlation of the deviations from the block means by the product of their norms, and the
+ * block means contribute exactly. Scene block sums come from integral images, so a bound costs
+ * a constant number of table lookups per block instead of a loop over every template pixel.
+ * Finer grids give tighter bounds at a higher cost.
+ */
+final class ScoreBound {
+
+    private final int blocks;
+    private final int[] blockX;
+    private final int[] blockY;
+    private final int[] blockWidth;
+    private final int[] blockHeight;
+    private final double[] inverseArea;
+    // Norm of the template deviations from each block mean
+    private final double[] templateDeviation;
+    // Block mean minus the mean of the whole template
+    private final double[] meanOffset;
+
+    /**
+     * Precompute the template statistics of a grid x grid partition.
+     * @param template Template image
+     * @param grid Number of blocks per side, capped by the template size
+     */
+    ScoreBound(GrayImage template, int grid) {
+        int columns = Math.min(grid, template.width());
+        int rows = Math.min(grid, template.height());
+        blocks = columns * rows;
+        blockX = new int[blocks];
+        blockY = new int[blocks];
+        blockWidth = new int[blocks];
+        blockHeight = new int[blocks];
+        inverseArea = new double[blocks];
+        templateDeviation = new double[blocks];
+        meanOffset = new double[blocks];
+
+        double templateMean = (double) template.boxSum(0, 0, template.width(), template.height())
+            / (template.width() * template.height());
+        int i = 0;
+        for (int row = 0; row < rows; row++) {
+            int y0 = row * template.height() / rows;
+            int y1 = (row + 1) * template.height() / rows;
+            for (int col = 0; col < columns; col++) {
+                int x0 = col * template.width() / columns;
+                int x1 = (col + 1) * template.width() / columns;
+                int w = x1 - x0;
+                int h = y1 - y0;
+                long sum = template.boxSum(x0, y0, w, h);
+                double squaredDeviation = template.boxSumOfSquares(x0, y0, w, h) - (double) sum * sum / (w * h);
+                blockX[i] = x0;
+                blockY[i] = y0;
+                blockWidth[i] = w;
+                blockHeight[i] = h;
+                inverseArea[i] = 1.0 / (w * h);
+                templateDeviation[i] = Math.sqrt(Math.max(0, squaredDeviation));
+                meanOffset[i] = (double) sum / (w * h) - templateMean;
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Compute where the corners of every block fall in a summed-area table, relative to the
+     * table entry of the window's top-left corner.
+     * @param stride Row stride of the table (scene width + 1)
+     * @return Top-left, top-right, bottom-left and bottom-right offsets of each block in turn
+     */
+    int[] cornerOffsets(int stride) {
+        int[] offsets = new int[blocks * 4];
+        for (int i = 0; i < blocks; i++) {
+            int top = blockY[i] * stride + blockX[i];
+            int bottom = (blockY[i] + blockHeight[i]) * stride + blockX[i];
+            offsets[4 * i] = top;
+            offsets[4 * i + 1] = top + blockWidth[i];
+            offsets[4 * i + 2] = bottom;
+            offsets[4 * i + 3] = bottom + blockWidth[i];
+        }
+        return offsets;
+    }
+
+    /**
+     * Upper bound on the covariance sum between the template and one scene window,
+     * i.e. on the numerator of the NCC score at that position.
+     * @param sums Summed-area table of the scene
+     * @param squares Summed-area table of the squared scene pixels
+     * @param corners Offsets from {@link #cornerOffsets} for the tables' stride
+     * @param origin Table index of the window's top-left corner
+     * @return Value no smaller than the exact covariance sum
+     */
+    double covarianceBound(long[] sums, long[] squares, int[] corners, int origin) {
+        double bound = 0;
+        for (int i = 0, c = 0; i < blocks; i++, c += 4) {
+            int topLeft = origin + corners[c];
+            int topRight = origin + corners[c + 1];
+            int bottomLeft = origin + corners[c + 2];
+            int bottomRight = origin + corners[c + 3];
+            long sum = sums[bottomRight] - sums[bottomLeft] - sums[topRight] + sums[topLeft];
+            long sumOfSquares = squares[bottomRight] - squares[bottomLeft] - squares[topRight] + squares[topLeft];
+            double squaredDeviation = sumOfSquares - (double) sum * sum * inverseArea[i];
+            if (squaredDeviation > 0) {
+                bound += templateDeviation[i] * Math.sqrt(squaredDeviation);
+            }
+            bound += sum * meanOffset[i];
+        }
+        return bound;
+    }
+}
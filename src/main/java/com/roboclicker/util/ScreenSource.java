@@ -0,0 +1,17 @@
+package com.roboclicker.util;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Source of screen frames for the pure-Java matchers.
+ * Frame pixel (0, 0) is screen coordinate (0, 0) of the matching input sink.
+ */
+@FunctionalInterface
+public interface ScreenSource {
+
+    /**
+     * Capture the current frame.
+     * @return Current frame
+     */
+    BufferedImage capture();
+}
@@ -0,0 +1,668 @@
+package com.roboclicker.util;
+
+import com.roboclicker.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pure-Java normalized cross-correlation matcher that reports every occurrence of a template.
+ * The score map is computed once on a coarse pyramid level; peaks are suppressed with
+ * non-maximum suppression and refined level by level down to exact full-resolution scores.
+ * Scores are zero-mean NCC on grayscale pixels. SikuliX scores color pixels instead, so the two
+ * scores are close on launcher UI but not identical, and neither bounds the other: an absence
+ * proof here says nothing certain about SikuliX scores.
+ */
+public class TemplateMatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(TemplateMatcher.class);
+
+    // Search radius (pixels) around a candidate when moving one pyramid level down
+    private static final int REFINE_RADIUS = 2;
+    // Block grids tried in turn when bounding the score of a position, coarse to fine
+    private static final int[] BOUND_GRIDS = {3, 6, 12};
+    // Coarsest and finest block sides (pixels) when bounding a square of positions; powers of
+    // two, so every square side up to the block side divides them
+    private static final int REGION_BLOCK_SIZE = 64;
+    private static final int REGION_MIN_BLOCK_SIZE = 4;
+    // Side of the squares of positions an absence proof starts from, a power of two
+    private static final int REGION_SIZE = 16;
+    // Smallest square worth a region bound; the positions of smaller ones are bounded one by one
+    private static final int REGION_MIN_SIZE = 4;
+    // Slack for floating-point rounding when comparing a bound against the threshold
+    private static final double BOUND_EPSILON = 1e-9;
+
+    private final int minCoarseSize;
+    private final double coarseMargin;
+    private final double nmsOverlap;
+    private final Map<String, TemplatePyramid> templateCache = new ConcurrentHashMap<>();
+    private final AtomicLong absenceChecks = new AtomicLong();
+    private final AtomicLong absenceProofs = new AtomicLong();
+    private final AtomicLong prunedRegions = new AtomicLong();
+    private final AtomicLong boundedPositions = new AtomicLong();
+    private final AtomicLong scoredPositions = new AtomicLong();
+
+    /**
+     * Constructor with settings from {@link Config}.
+     */
+    public TemplateMatcher() {
+        this(Config.TOP_K_MIN_COARSE_SIZE, Config.TOP_K_COARSE_MARGIN, Config.TOP_K_NMS_OVERLAP);
+    }
+
+    /**
+     * Constructor with custom settings.
+     * @param minCoarseSize Smallest template side allowed on the coarsest pyramid level
+     * @param coarseMargin How far below the minimum score a coarse peak may be and still be refined
+     * @param nmsOverlap Maximum intersection-over-union between two reported matches
+     */
+    public TemplateMatcher(int minCoarseSize, double coarseMargin, double nmsOverlap) {
+        this.minCoarseSize = minCoarseSize;
+        this.coarseMargin = coarseMargin;
+        this.nmsOverlap = nmsOverlap;
+    }
+
+    /**
+     * Find the best non-overlapping occurrences of a cached template.
+     * @param imagePath Path to the template image file
+     * @param scale Scale applied to the template before searching
+     * @param scene Image to search in
+     * @param k Maximum number of matches
+     * @param minScore Minimum score of a reported match (0.0 to 1.0)
+     * @return Matches ordered by descending score, empty if none reaches minScore
+     */
+    public List<MatchResult> findTopK(String imagePath, double scale, BufferedImage scene, int k, double minScore) {
+        TemplatePyramid template = getTemplatePyramid(imagePath, scale);
+        if (template == null) {
+            return new ArrayList<>();
+        }
+        return findTopK(template, GrayImage.fromImage(scene), k, minScore);
+    }
+
+    /**
+     * Find the best non-overlapping occurrences of a template without caching it.
+     * @param template Template image
+     * @param scene Image to search in
+     * @param k Maximum number of matches
+     * @param minScore Minimum score of a reported match (0.0 to 1.0)
+     * @return Matches ordered by descending score, empty if none reaches minScore
+     */
+    public List<MatchResult> findTopK(BufferedImage template, BufferedImage scene, int k, double minScore) {
+        return findTopK(new TemplatePyramid(GrayImage.fromImage(template), minCoarseSize, 1.0),
+            GrayImage.fromImage(scene), k, minScore);
+    }
+
+    /**
+     * Score a cached template around a known position, e.g. to confirm a keypoint match.
+     * @param imagePath Path to the template image file
+     * @param scale Scale applied to the template before scoring
+     * @param scene Image to score in
+     * @param x Expected left edge of the template
+     * @param y Expected top edge of the template
+     * @param radius Search radius around the expected position, in pixels
+     * @return Best-scoring position within the radius, or null if the template does not fit there
+     */
+    public MatchResult scoreNear(String imagePath, double scale, BufferedImage scene, int x, int y, int radius) {
+        TemplatePyramid template = getTemplatePyramid(imagePath, scale);
+        if (template == null) {
+            return null;
+        }
+        TemplateLevel base = template.levels.get(0);
+        GrayImage gray = GrayImage.fromImage(scene);
+        MatchResult best = null;
+        for (int ty = Math.max(0, y - radius); ty <= Math.min(gray.height() - base.height(), y + radius); ty++) {
+            for (int tx = Math.max(0, x - radius); tx <= Math.min(gray.width() - base.width(), x + radius); tx++) {
+                double score = base.score(gray, tx, ty);
+                if (best == null || score > best.getScore()) {
+                    best = new MatchResult(tx, ty, base.width(), base.height(), score, scale);
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Prove that a cached template reaches the threshold nowhere in the scene, within
+     * {@link Config#ABSENCE_PROOF_BUDGET_MILLIS}.
+     * @param imagePath Path to the template image file
+     * @param scale Scale applied to the template before scoring
+     * @param scene Image to search in
+     * @param threshold Score no position may reach (0.0 to 1.0)
+     * @return true if the template is proven absent, false if it may be present
+     */
+    public boolean proveAbsent(String imagePath, double scale, BufferedImage scene, double threshold) {
+        return proveAbsent(imagePath, scale, scene, threshold, Config.ABSENCE_PROOF_BUDGET_MILLIS);
+    }
+
+    /**
+     * Prove that a cached template reaches the threshold nowhere in the scene.
+     * The positions are split into squares, and each square is first bounded as a whole from
+     * the cell statistics of a coarse pyramid level (see {@link RegionBound}); squares the bound
+     * cannot rule out are halved, most promising first, down to single positions, which are
+     * bounded from block statistics (see {@link ScoreBound}) and only then scored exactly. The
+     * proof is exact for the grayscale NCC score, so an absent verdict is never wrong for that
+     * measure; it does not bound color scores such as SikuliX's. Gives up as soon as a position
+     * reaches the threshold or the time budget runs out.
+     * @param imagePath Path to the template image file
+     * @param scale Scale applied to the template before scoring
+     * @param scene Image to search in
+     * @param threshold Score no position may reach (0.0 to 1.0)
+     * @param budgetMillis Time after which the proof gives up
+     * @return true if the template is proven absent, false if it may be present
+     */
+    public boolean proveAbsent(String imagePath, double scale, BufferedImage scene, double threshold,
+                               long budgetMillis) {
+        TemplatePyramid template = getTemplatePyramid(imagePath, scale);
+        if (template == null || threshold <= 0) {
+            return false;
+        }
+        return proveAbsent(template, GrayImage.fromImage(scene), threshold,
+            System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis));
+    }
+
+    /**
+     * Get the number of absence proofs attempted.
+     * @return Number of calls to {@link #proveAbsent}
+     */
+    public long getAbsenceCheckCount() {
+        return absenceChecks.get();
+    }
+
+    /**
+     * Get the number of absence proofs that succeeded.
+     * @return Number of checks that proved the template absent
+     */
+    public long getAbsenceProofCount() {
+        return absenceProofs.get();
+    }
+
+    /**
+     * Get the number of squares of positions ruled out at once during absence checks.
+     * @return Squares decided by a single bound
+     */
+    public long getPrunedRegionCount() {
+        return prunedRegions.get();
+    }
+
+    /**
+     * Get the number of positions ruled out by a score bound alone.
+     * @return Positions decided without an exact score
+     */
+    public long getBoundedPositionCount() {
+        return boundedPositions.get();
+    }
+
+    /**
+     * Get the number of positions that needed an exact score during absence checks.
+     * @return Positions scored exactly
+     */
+    public long getScoredPositionCount() {
+        return scoredPositions.get();
+    }
+
+    /**
+     * Drop all cached templates.
+     */
+    public void clearCache() {
+        templateCache.clear();
+    }
+
+    private TemplatePyramid getTemplatePyramid(String imagePath, double scale) {
+        String key = imagePath + "@" + scale;
+        TemplatePyramid cached = templateCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            BufferedImage image = ImageIO.read(new File(imagePath));
+            if (image == null) {
+                logger.error("Unsupported image format: {}", imagePath);
+                return null;
+            }
+            GrayImage gray = GrayImage.fromImage(image);
+            if (scale != 1.0) {
+                gray = gray.resize(scale);
+            }
+            TemplatePyramid pyramid = new TemplatePyramid(gray, minCoarseSize, scale);
+            templateCache.put(key, pyramid);
+            return pyramid;
+        } catch (IOException e) {
+            logger.error("Failed to read image {}: {}", imagePath, e.getMessage());
+            return null;
+        }
+    }
+
+    private List<MatchResult> findTopK(TemplatePyramid template, GrayImage scene, int k, double minScore) {
+        List<MatchResult> results = new ArrayList<>();
+        if (k <= 0 || template.base().width() > scene.width() || template.base().height() > scene.height()) {
+            return results;
+        }
+
+        // Build the scene pyramid down to the template's coarsest level
+        List<GrayImage> scenePyramid = new ArrayList<>();
+        scenePyramid.add(scene);
+        for (int level = 1; level < template.levels.size(); level++) {
+            scenePyramid.add(scenePyramid.get(level - 1).downsample());
+        }
+        int coarsest = template.levels.size() - 1;
+        while (coarsest > 0 && (template.levels.get(coarsest).width() > scenePyramid.get(coarsest).width()
+                || template.levels.get(coarsest).height() > scenePyramid.get(coarsest).height())) {
+            coarsest--;
+        }
+
+        // Full score map on the coarsest level only
+        GrayImage coarseScene = scenePyramid.get(coarsest);
+        TemplateLevel coarseTemplate = template.levels.get(coarsest);
+        double coarseThreshold = coarsest == 0 ? minScore : minScore - coarseMargin;
+        List<MatchResult> candidates = new ArrayList<>();
+        for (int y = 0; y + coarseTemplate.height() <= coarseScene.height(); y++) {
+            for (int x = 0; x + coarseTemplate.width() <= coarseScene.width(); x++) {
+                double score = coarseTemplate.score(coarseScene, x, y);
+                if (score >= coarseThreshold) {
+                    candidates.add(new MatchResult(x, y, coarseTemplate.width(), coarseTemplate.height(), score));
+                }
+            }
+        }
+        // Refine a few more peaks than requested - coarse ranking is only approximate
+        candidates = suppressNonMaxima(candidates, coarsest == 0 ? k : Math.max(4 * k, 16));
+
+        // Walk the candidates down the pyramid
+        for (int level = coarsest - 1; level >= 0; level--) {
+            GrayImage levelScene = scenePyramid.get(level);
+            TemplateLevel levelTemplate = template.levels.get(level);
+            List<MatchResult> refined = new ArrayList<>(candidates.size());
+            for (MatchResult candidate : candidates) {
+                MatchResult best = refine(levelTemplate, levelScene, candidate.getX() * 2, candidate.getY() * 2);
+                if (best != null) {
+                    refined.add(best);
+                }
+            }
+            candidates = refined;
+        }
+
+        for (MatchResult candidate : suppressNonMaxima(candidates, k)) {
+            if (candidate.getScore() >= minScore) {
+                results.add(new MatchResult(candidate.getX(), candidate.getY(), candidate.getWidth(),
+                    candidate.getHeight(), candidate.getScore(), template.scale));
+            }
+        }
+        return results;
+    }
+
+    private boolean proveAbsent(TemplatePyramid template, GrayImage scene, double threshold, long deadlineNanos) {
+        absenceChecks.incrementAndGet();
+        TemplateLevel base = template.levels.get(0);
+        if (base.variance() == 0) {
+            // A flat template has no grayscale score to bound, yet SikuliX still matches plain and
+            // equal-luminance colored templates, so it is never proven absent
+            logger.debug("Absence check skipped for a flat template");
+            return false;
+        }
+        AbsenceSearch search = new AbsenceSearch(template, scene, threshold, deadlineNanos);
+        // A template larger than the scene matches nowhere
+        AbsenceSearch.Verdict verdict = base.width() <= scene.width() && base.height() <= scene.height()
+            ? search.run() : AbsenceSearch.Verdict.ABSENT;
+
+        prunedRegions.addAndGet(search.prunedRegions);
+        boundedPositions.addAndGet(search.boundedPositions);
+        scoredPositions.addAndGet(search.scoredPositions);
+        if (verdict == AbsenceSearch.Verdict.ABSENT) {
+            absenceProofs.incrementAndGet();
+        }
+        logger.debug("Absence check at threshold {}: {} ({} positions bounded in {} regions, {} scored exactly)",
+            threshold, verdict, search.boundedPositions, search.prunedRegions, search.scoredPositions);
+        return verdict == AbsenceSearch.Verdict.ABSENT;
+    }
+
+    private static MatchResult refine(TemplateLevel template, GrayImage scene, int centerX, int centerY) {
+        MatchResult best = null;
+        int maxX = scene.width() - template.width();
+        int maxY = scene.height() - template.height();
+        for (int y = Math.max(0, centerY - REFINE_RADIUS); y <= Math.min(maxY, centerY + REFINE_RADIUS); y++) {
+            for (int x = Math.max(0, centerX - REFINE_RADIUS); x <= Math.min(maxX, centerX + REFINE_RADIUS); x++) {
+                double score = template.score(scene, x, y);
+                if (best == null || score > best.getScore()) {
+                    best = new MatchResult(x, y, template.width(), template.height(), score);
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Greedy non-maximum suppression: keep the best match, drop everything overlapping it, repeat.
+     */
+    private List<MatchResult> suppressNonMaxima(List<MatchResult> matches, int limit) {
+        List<MatchResult> sorted = new ArrayList<>(matches);
+        sorted.sort(Comparator.comparingDouble(MatchResult::getScore).reversed());
+        List<MatchResult> kept = new ArrayList<>();
+        for (MatchResult match : sorted) {
+            if (kept.size() >= limit) {
+                break;
+            }
+            boolean overlaps = false;
+            for (MatchResult other : kept) {
+                if (intersectionOverUnion(match, other) > nmsOverlap) {
+                    overlaps = true;
+                    break;
+                }
+            }
+            if (!overlaps) {
+                kept.add(match);
+            }
+        }
+        return kept;
+    }
+
+    private static double intersectionOverUnion(MatchResult a, MatchResult b) {
+        int overlapWidth = Math.min(a.getX() + a.getWidth(), b.getX() + b.getWidth()) - Math.max(a.getX(), b.getX());
+        int overlapHeight = Math.min(a.getY() + a.getHeight(), b.getY() + b.getHeight()) - Math.max(a.getY(), b.getY());
+        if (overlapWidth <= 0 || overlapHeight <= 0) {
+            return 0.0;
+        }
+        double intersection = (double) overlapWidth * overlapHeight;
+        double union = (double) a.getWidth() * a.getHeight() + (double) b.getWidth() * b.getHeight() - intersection;
+        return intersection / union;
+    }
+
+    /**
+     * Template with precomputed statistics for NCC scoring at one pyramid level.
+     */
+    static final class TemplateLevel {
+        private final GrayImage image;
+        private final long sum;
+        private final double variance;
+
+        TemplateLevel(GrayImage image) {
+            this.image = image;
+            long s = 0;
+            long sq = 0;
+            for (int p : image.pixels()) {
+                s += p;
+                sq += (long) p * p;
+            }
+            this.sum = s;
+            this.variance = sq - (double) s * s / image.pixels().length;
+        }
+
+        /**
+         * Zero-mean normalized cross-correlation of the template placed at (x, y).
+         * Window sums come from the scene's integral images; only the cross term is a full loop.
+         */
+        double score(GrayImage scene, int x, int y) {
+            int w = image.width();
+            int h = image.height();
+            int n = w * h;
+            long windowSum = scene.boxSum(x, y, w, h);
+            double windowVariance = scene.boxSumOfSquares(x, y, w, h) - (double) windowSum * windowSum / n;
+            if (variance <= 0 || windowVariance <= 0) {
+                return 0.0;
+            }
+            int[] templatePixels = image.pixels();
+            int[] scenePixels = scene.pixels();
+            int sceneWidth = scene.width();
+            long cross = 0;
+            for (int row = 0; row < h; row++) {
+                int t = row * w;
+                int s = (y + row) * sceneWidth + x;
+                for (int col = 0; col < w; col++) {
+                    cross += (long) templatePixels[t + col] * scenePixels[s + col];
+                }
+            }
+            double covariance = cross - (double) sum * windowSum / n;
+            return covariance / Math.sqrt(variance * windowVariance);
+        }
+
+        GrayImage image() {
+            return image;
+        }
+
+        double variance() {
+            return variance;
+        }
+
+        int width() {
+            return image.width();
+        }
+
+        int height() {
+            return image.height();
+        }
+    }
+
+    /**
+     * Template halved repeatedly until its smaller side would drop below the coarse size limit,
+     * along with the position and region score bounds of the full-resolution template.
+     */
+    static final class TemplatePyramid {
+        final List<TemplateLevel> levels = new ArrayList<>();
+        final List<ScoreBound> bounds = new ArrayList<>();
+        final RegionBound regionBound;
+        final double scale;
+
+        TemplatePyramid(GrayImage template, int minCoarseSize, double scale) {
+            this.scale = scale;
+            GrayImage level = template;
+            levels.add(new TemplateLevel(level));
+            while (Math.min(level.width(), level.height()) / 2 >= minCoarseSize) {
+                level = level.downsample();
+                levels.add(new TemplateLevel(level));
+            }
+            for (int grid : BOUND_GRIDS) {
+                bounds.add(new ScoreBound(template, grid));
+            }
+            regionBound = new RegionBound(template, REGION_BLOCK_SIZE, REGION_MIN_BLOCK_SIZE);
+        }
+
+        GrayImage base() {
+            return levels.get(0).image();
+        }
+    }
+
+    /**
+     * Branch-and-bound search for a position reaching the threshold. The scene is cut into
+     * tiles of positions, which are searched in order of how far their bound exceeds the limit,
+     * so a real match is reached early and the search stops there instead of bounding the rest
+     * of the scene. Within a tile, squares that are not ruled out are halved depth first, which
+     * keeps the cell statistics they read in cache, and each quarter starts from the flat areas
+     * of its square. Squares are aligned to their own size, so a square of side s is one cell of
+     * the pyramid level with s x s cells, and its bound reads that level's cell table. Squares
+     * along the right and bottom edges may reach past the last position; the extra windows only
+     * loosen their bound.
+     */
+    private static final class AbsenceSearch {
+
+        enum Verdict { ABSENT, MAY_BE_PRESENT, OUT_OF_TIME }
+
+        private final TemplatePyramid template;
+        private final TemplateLevel base;
+        private final GrayImage scene;
+        private final double threshold;
+        private final long[] sums;
+        private final long[] squares;
+        private final int stride;
+        private final int[][] positionCorners;
+        private final int lastX;
+        private final int lastY;
+        // Any window that is not flat has at least this squared deviation; flat windows score 0
+        private final double minSquaredDeviation;
+        // Cell tables by log2 of the cell side
+        private final CellTable[] cellTables = new CellTable[Integer.numberOfTrailingZeros(REGION_SIZE) + 1];
+        private final long deadlineNanos;
+        private long steps;
+        long prunedRegions;
+        long boundedPositions;
+        long scoredPositions;
+
+        AbsenceSearch(TemplatePyramid template, GrayImage scene, double threshold, long deadlineNanos) {
+            this.template = template;
+            this.deadlineNanos = deadlineNanos;
+            this.base = template.levels.get(0);
+            this.scene = scene;
+            this.threshold = threshold;
+            this.sums = scene.integral();
+            this.squares = scene.squaredIntegral();
+            this.stride = scene.width() + 1;
+            this.positionCorners = new int[template.bounds.size()][];
+            for (int i = 0; i < positionCorners.length; i++) {
+                positionCorners[i] = template.bounds.get(i).cornerOffsets(stride);
+            }
+            this.lastX = scene.width() - base.width();
+            this.lastY = scene.height() - base.height();
+            int area = base.width() * base.height();
+            this.minSquaredDeviation = (area - 1.0) / area;
+        }
+
+        Verdict run() {
+            List<PositionRegion> tiles = new ArrayList<>();
+            for (int y = 0; y <= lastY; y += REGION_SIZE) {
+                for (int x = 0; x <= lastX; x += REGION_SIZE) {
+                    PositionRegion tile = new PositionRegion(x, y, REGION_SIZE);
+                    if (bound(tile, null) >= 1) {
+                        tiles.add(tile);
+                    }
+                }
+            }
+            tiles.sort(Comparator.comparingDouble((PositionRegion tile) -> tile.excess).reversed());
+            for (PositionRegion tile : tiles) {
+                Verdict verdict = settle(tile);
+                if (verdict != Verdict.ABSENT) {
+                    return verdict;
+                }
+            }
+            return Verdict.ABSENT;
+        }
+
+        /**
+         * Decide a square of positions the bound did not rule out.
+         */
+        private Verdict settle(PositionRegion region) {
+            if (region.size == 1) {
+                scoredPositions++;
+                return base.score(scene, region.x, region.y) >= threshold ? Verdict.MAY_BE_PRESENT : Verdict.ABSENT;
+            }
+            if ((++steps & 63) == 0 && System.nanoTime() - deadlineNanos > 0) {
+                return Verdict.OUT_OF_TIME;
+            }
+            int half = region.size / 2;
+            for (int top = region.y; top < region.y + region.size && top <= lastY; top += half) {
+                for (int left = region.x; left < region.x + region.size && left <= lastX; left += half) {
+                    PositionRegion quarter = new PositionRegion(left, top, half);
+                    if (bound(quarter, region.flatAreas) >= 1) {
+                        Verdict verdict = settle(quarter);
+                        if (verdict != Verdict.ABSENT) {
+                            return verdict;
+                        }
+                    }
+                }
+            }
+            return Verdict.ABSENT;
+        }
+
+        /**
+         * Bound a square of positions, counting it as ruled out when the bound is below the limit.
+         * @param region Square to bound, which receives the ratio and its flat areas
+         * @param enclosing Flat areas of the square holding this one, or null for a tile
+         * @return Ratio of the bound to the limit, or 1 for a square too small to bound as a whole
+         */
+        private double bound(PositionRegion region, RegionBound.FlatAreas enclosing) {
+            int x = region.x;
+            int y = region.y;
+            int size = region.size;
+            double limitScore = threshold - BOUND_EPSILON;
+            if (size > 1 && size < REGION_MIN_SIZE) {
+                region.excess = 1;
+                return region.excess;
+            }
+            double flatExcess = Double.POSITIVE_INFINITY;
+            if (size > 1) {
+                region.flatAreas = new RegionBound.FlatAreas();
+                flatExcess = template.regionBound.scoreBound(cellTable(size), x / size, y / size, limitScore,
+                    enclosing, region.flatAreas) / limitScore;
+                if (flatExcess < 1) {
+                    return ruleOut(region, flatExcess);
+                }
+            }
+
+            // Every window of the square contains the part all of them share, so its
+            // squared deviation is a lower bound on theirs
+            int sharedX = x + size - 1;
+            int sharedY = y + size - 1;
+            int sharedWidth = Math.min(x + base.width(), scene.width()) - sharedX;
+            int sharedHeight = Math.min(y + base.height(), scene.height()) - sharedY;
+            double sharedDeviation = 0;
+            if (sharedWidth > 0 && sharedHeight > 0) {
+                long sharedSum = scene.boxSum(sharedX, sharedY, sharedWidth, sharedHeight);
+                sharedDeviation = scene.boxSumOfSquares(sharedX, sharedY, sharedWidth, sharedHeight)
+                    - (double) sharedSum * sharedSum / (sharedWidth * sharedHeight);
+            }
+            double limit = limitScore * Math.sqrt(base.variance() * Math.max(minSquaredDeviation, sharedDeviation));
+
+            double bound = 0;
+            if (size == 1) {
+                int origin = y * stride + x;
+                for (int i = 0; i < positionCorners.length; i++) {
+                    bound = template.bounds.get(i).covarianceBound(sums, squares, positionCorners[i], origin);
+                    if (bound < limit) {
+                        boundedPositions++;
+                        break;
+                    }
+                }
+                region.excess = bound / limit;
+                return region.excess;
+            }
+            bound = template.regionBound.covarianceBound(cellTable(size), x / size, y / size, limit);
+            if (bound < limit) {
+                return ruleOut(region, bound / limit);
+            }
+            region.excess = Math.min(flatExcess, bound / limit);
+            return region.excess;
+        }
+
+        private double ruleOut(PositionRegion region, double excess) {
+            prunedRegions++;
+            boundedPositions += (long) Math.min(region.size, lastX - region.x + 1)
+                * Math.min(region.size, lastY - region.y + 1);
+            region.excess = excess;
+            return excess;
+        }
+
+        private CellTable cellTable(int size) {
+            int level = Integer.numberOfTrailingZeros(size);
+            if (cellTables[level] == null) {
+                // Room for the padded template placed at the last square
+                cellTables[level] = new CellTable(scene, size, (lastX + template.regionBound.paddedWidth()) / size + 2,
+                    (lastY + template.regionBound.paddedHeight()) / size + 2, REGION_BLOCK_SIZE / size + 1);
+            }
+            return cellTables[level];
+        }
+    }
+
+    /**
+     * Square of template positions, with how far its score bound exceeds the limit and the
+     * flat areas its quarters start from.
+     */
+    private static final class PositionRegion {
+        final int x;
+        final int y;
+        final int size;
+        double excess;
+        RegionBound.FlatAreas flatAreas;
+
+        PositionRegion(int x, int y, int size) {
+            this.x = x;
+            this.y = y;
+            this.size = size;
+        }
+    }
+}
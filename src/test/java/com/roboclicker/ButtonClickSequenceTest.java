@@ -3,6 +3,7 @@ package com.roboclicker;
 import com.roboclicker.config.Config;
 import com.roboclicker.pages.MainPage;
 import com.roboclicker.util.ImageMatcher;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -21,12 +22,13 @@ import static org.junit.jupiter.api.Assertions.*;
 public class ButtonClickSequenceTest {
     
     private static final Logger logger = LoggerFactory.getLogger(ButtonClickSequenceTest.class);
+    private ImageMatcher imageMatcher;
     private MainPage mainPage;
     
     @BeforeEach
     void setUp() {
         logger.info("Setting up test environment");
-        ImageMatcher imageMatcher = new ImageMatcher(Config.SIKULI_SIMILARITY);
+        imageMatcher = new ImageMatcher(Config.SIKULI_SIMILARITY);
         mainPage = new MainPage(imageMatcher);
         
         // Verify images directory exists
@@ -34,6 +36,13 @@ public class ButtonClickSequenceTest {
             "Images directory does not exist: " + Config.IMAGES_DIR);
     }
     
+    @AfterEach
+    void tearDown() {
+        if (imageMatcher != null) {
+            imageMatcher.close();
+        }
+    }
+    
     @Test
     @Tag("sikuli")
     @Tag("button-click")
@@ -69,6 +78,7 @@ public class ButtonClickSequenceTest {
         boolean configOpened = mainPage.openConfigurationGear();
         assertTrue(configOpened, 
             "Configuration gear not found or could not be opened within " + Config.TIMEOUT_SECONDS + " seconds");
+        assertTrue(mainPage.awaitPendingInput(), "Configuration gear click was not delivered");
         
         logger.info("All UI actions completed successfully in sequence");
         logger.info("Test completed successfully");
@@ -100,6 +110,7 @@ public class ButtonClickSequenceTest {
         
         assertTrue(mainPage.openConfigurationGear(), 
             "Failed to open Configuration Gear");
+        assertTrue(mainPage.awaitPendingInput(), "Last click was not delivered");
         
         logger.info("Full navigation sequence completed successfully");
         logger.info("Test completed successfully");
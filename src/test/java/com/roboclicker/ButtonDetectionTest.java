@@ -2,6 +2,7 @@ package com.roboclicker;
 
 import com.roboclicker.config.Config;
 import com.roboclicker.util.ImageMatcher;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -32,6 +33,13 @@ public class ButtonDetectionTest {
             "Images directory does not exist: " + Config.IMAGES_DIR);
     }
     
+    @AfterEach
+    void tearDown() {
+        if (imageMatcher != null) {
+            imageMatcher.close();
+        }
+    }
+    
     @Test
     @Tag("sikuli")
     @Tag("button-detection")
@@ -0,0 +1,124 @@
+package com.roboclicker;
+
+import com.roboclicker.config.Config;
+import com.roboclicker.util.FeatureMatcher;
+import com.roboclicker.util.MatchResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for scale-invariant keypoint matching.
+ * Renders templates at different scales into an in-memory scene, so it runs headless.
+ */
+@DisplayName("Feature Matcher Tests")
+public class FeatureMatcherTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeatureMatcherTest.class);
+    private FeatureMatcher featureMatcher;
+
+    @BeforeEach
+    void setUp() {
+        logger.info("Setting up test environment");
+        featureMatcher = new FeatureMatcher();
+
+        assertTrue(Config.imagesDirectoryExists(),
+            "Images directory does not exist: " + Config.IMAGES_DIR);
+    }
+
+    @ParameterizedTest(name = "{0} at scale {1}")
+    @Tag("feature-matching")
+    @CsvSource({
+        "2_thumbnail.png, 1.0",
+        "2_thumbnail.png, 0.7",
+        "2_thumbnail.png, 1.3",
+        "3_button.png, 1.0",
+        "3_button.png, 1.4"
+    })
+    @DisplayName("Find scaled template and estimate its scale")
+    void testFindScaledTemplate(String imageName, double scale) throws IOException {
+        String imagePath = Config.IMAGES_DIR + File.separator + imageName;
+        BufferedImage template = ImageIO.read(new File(imagePath));
+        int x = 412;
+        int y = 157;
+        BufferedImage scene = renderScene(template, scale, x, y);
+
+        MatchResult match = featureMatcher.match(imagePath, scene);
+        logger.info("Match for {} at scale {}: {}", imageName, scale, match);
+
+        assertNotNull(match, "Template " + imageName + " not found at scale " + scale);
+        assertEquals(scale, match.getScale(), scale * 0.1, "Estimated scale is off");
+        int tolerance = (int) Math.max(6, template.getWidth() * scale * 0.08);
+        assertEquals(x, match.getX(), tolerance, "Match X is off");
+        assertEquals(y, match.getY(), tolerance, "Match Y is off");
+    }
+
+    @ParameterizedTest(name = "{0} absent")
+    @Tag("feature-matching")
+    @CsvSource({"2_thumbnail.png", "3_button.png"})
+    @DisplayName("Report no match when the template is absent")
+    void testTemplateAbsent(String imageName) throws IOException {
+        String imagePath = Config.IMAGES_DIR + File.separator + imageName;
+        BufferedImage template = ImageIO.read(new File(imagePath));
+        BufferedImage scene = renderScene(template, 0, 0, 0);
+
+        assertNull(featureMatcher.match(imagePath, scene), "Absent template should not match");
+    }
+
+    @ParameterizedTest(name = "{1} with only {0} on screen")
+    @Tag("feature-matching")
+    @CsvSource({
+        "1_button.png, 4_button.png",
+        "1_button.png, 3_button.png",
+        "3_button.png, 1_button.png"
+    })
+    @DisplayName("Do not mistake another launcher element for the template")
+    void testOtherElementDoesNotMatch(String shownName, String searchedName) throws IOException {
+        String searchedPath = Config.IMAGES_DIR + File.separator + searchedName;
+        BufferedImage shown = ImageIO.read(new File(Config.IMAGES_DIR + File.separator + shownName));
+        BufferedImage scene = renderScene(shown, 1.0, 40, 2);
+
+        MatchResult match = featureMatcher.match(searchedPath, scene);
+        logger.info("Match for {} with only {} on screen: {}", searchedName, shownName, match);
+        assertNull(match, searchedName + " should not match " + shownName);
+    }
+
+    /**
+     * Render a cluttered scene with the template drawn at the given scale and position.
+     * A scale of zero leaves the template out.
+     */
+    static BufferedImage renderScene(BufferedImage template, double scale, int x, int y) {
+        BufferedImage scene = new BufferedImage(960, 640, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scene.createGraphics();
+        g.setColor(new Color(24, 26, 32));
+        g.fillRect(0, 0, scene.getWidth(), scene.getHeight());
+        Random random = new Random(42);
+        for (int i = 0; i < 40; i++) {
+            g.setColor(new Color(random.nextInt(256), random.nextInt(256), random.nextInt(256)));
+            g.fillRect(random.nextInt(scene.getWidth()), random.nextInt(scene.getHeight()),
+                10 + random.nextInt(60), 10 + random.nextInt(30));
+        }
+        if (scale > 0) {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(template, x, y, (int) Math.round(template.getWidth() * scale),
+                (int) Math.round(template.getHeight() * scale), null);
+        }
+        g.dispose();
+        return scene;
+    }
+}
@@ -0,0 +1,158 @@
+package com.roboclicker;
+
+import com.roboclicker.config.Config;
+import com.roboclicker.input.InputAction;
+import com.roboclicker.input.InputDispatcher;
+import com.roboclicker.input.RecordingInputSink;
+import com.roboclicker.pages.MainPage;
+import com.roboclicker.sim.LauncherSimulator;
+import com.roboclicker.sim.SimulatorSettings;
+import com.roboclicker.util.ImageMatcher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the non-blocking input dispatcher.
+ * Uses a recording input sink, so no mouse or display is needed.
+ */
+@DisplayName("Input Dispatcher Tests")
+public class InputDispatcherTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(InputDispatcherTest.class);
+    private InputDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.close();
+        }
+    }
+
+    @Test
+    @Tag("input")
+    @DisplayName("Deliver actions in submission order")
+    void testDeliveryOrder() {
+        RecordingInputSink sink = new RecordingInputSink();
+        dispatcher = new InputDispatcher(sink);
+
+        dispatcher.click(10, 20);
+        dispatcher.doubleClick(30, 40);
+        dispatcher.click(50, 60).join();
+
+        List<InputAction> actions = sink.getActions();
+        assertEquals(3, actions.size(), "All actions should be delivered");
+        assertEquals(InputAction.Type.CLICK, actions.get(0).getType());
+        assertEquals(InputAction.Type.DOUBLE_CLICK, actions.get(1).getType());
+        assertEquals(30, actions.get(1).getX());
+        assertEquals(60, actions.get(2).getY());
+    }
+
+    @Test
+    @Tag("input")
+    @DisplayName("Finish a page action before its click is delivered")
+    void testPageActionDoesNotWaitForDelivery() {
+        LauncherSimulator simulator = new LauncherSimulator(SimulatorSettings.defaults());
+        RecordingInputSink sink = new RecordingInputSink(300);
+        try (ImageMatcher imageMatcher = new ImageMatcher(Config.SIMULATOR_SIMILARITY, simulator, sink)) {
+            MainPage mainPage = new MainPage(imageMatcher);
+
+            assertTrue(mainPage.clickGamesTab(), "Games tab click should be queued");
+            assertTrue(sink.getActions().isEmpty(), "Action should return before the click is delivered");
+            assertTrue(mainPage.awaitPendingInput(), "Click should be delivered");
+            assertEquals(1, sink.getActions().size());
+        }
+    }
+
+    @Test
+    @Tag("input")
+    @DisplayName("Return to the caller before slow input is delivered")
+    void testSubmitDoesNotBlock() {
+        RecordingInputSink sink = new RecordingInputSink(200);
+        dispatcher = new InputDispatcher(sink);
+
+        long start = System.nanoTime();
+        CompletableFuture<Void> click = dispatcher.click(1, 1);
+        long submitMillis = (System.nanoTime() - start) / 1_000_000;
+        logger.info("Submitting a 200 ms click took {} ms", submitMillis);
+
+        assertTrue(submitMillis < 100, "Submitting should not wait for delivery");
+        assertFalse(click.isDone(), "Click should still be in progress");
+        click.join();
+        assertTrue(sink.getLatenciesNanos().get(0) >= 200_000_000L, "Latency should include delivery time");
+    }
+
+    @Test
+    @Tag("input")
+    @DisplayName("Coalesce consecutive pending moves")
+    void testMovesCoalesced() {
+        RecordingInputSink sink = new RecordingInputSink(50);
+        dispatcher = new InputDispatcher(sink);
+
+        dispatcher.click(0, 0);
+        CompletableFuture<Void> first = dispatcher.move(1, 1);
+        dispatcher.move(2, 2);
+        CompletableFuture<Void> last = dispatcher.move(3, 3);
+        dispatcher.click(4, 4);
+
+        assertTrue(dispatcher.awaitIdle(5000), "Dispatcher should drain");
+        assertTrue(first.isDone() && last.isDone(), "Coalesced futures should complete");
+
+        List<InputAction> actions = sink.getActions();
+        assertEquals(3, actions.size(), "Moves should be merged into one");
+        assertEquals(InputAction.Type.MOVE, actions.get(1).getType());
+        assertEquals(3, actions.get(1).getX(), "Merged move should target the last position");
+        assertEquals(2, dispatcher.getCoalescedCount());
+        assertEquals(5, dispatcher.getSubmittedCount());
+        assertEquals(3, dispatcher.getDeliveredCount());
+    }
+
+    @Test
+    @Tag("input")
+    @DisplayName("Fail the future when delivery fails")
+    void testDeliveryFailure() {
+        dispatcher = new InputDispatcher(action -> {
+            throw new IllegalStateException("no display");
+        });
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> dispatcher.click(5, 5).get());
+        assertEquals("no display", error.getCause().getMessage());
+    }
+
+    @Test
+    @Tag("input")
+    @DisplayName("Reject actions after close")
+    void testRejectAfterClose() {
+        RecordingInputSink sink = new RecordingInputSink();
+        dispatcher = new InputDispatcher(sink);
+        dispatcher.click(1, 1);
+        dispatcher.close();
+
+        assertEquals(1, sink.getActions().size(), "Queued action should be delivered on close");
+        assertTrue(dispatcher.click(2, 2).isCompletedExceptionally(), "Closed dispatcher should reject actions");
+    }
+
+    @Test
+    @Tag("input")
+    @DisplayName("Stop the matcher's dispatcher thread on close")
+    void testImageMatcherCloseStopsDispatcher() {
+        RecordingInputSink sink = new RecordingInputSink();
+        ImageMatcher imageMatcher = new ImageMatcher(0.9, () -> new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB), sink);
+        imageMatcher.getInputDispatcher().click(3, 4);
+        imageMatcher.close();
+
+        assertEquals(1, sink.getActions().size(), "Queued action should be delivered on close");
+        assertTrue(imageMatcher.getInputDispatcher().click(5, 6).isCompletedExceptionally(),
+            "Closed matcher should not accept input");
+    }
+}
@@ -0,0 +1,141 @@
+package com.roboclicker;
+
+import com.roboclicker.config.Config;
+import com.roboclicker.input.InputAction;
+import com.roboclicker.pages.MainPage;
+import com.roboclicker.sim.LauncherSimulator;
+import com.roboclicker.sim.SimulatorSettings;
+import com.roboclicker.sim.SoakBenchmark;
+import com.roboclicker.sim.SoakReport;
+import com.roboclicker.util.ImageMatcher;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the synthetic launcher simulator and the soak benchmark.
+ * Runs the MainPage flow headless against in-memory frames.
+ */
+@DisplayName("Launcher Simulator Tests")
+public class LauncherSimulatorTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(LauncherSimulatorTest.class);
+    // Raise with -Droboclicker.soakFlows=5000 for a real soak run
+    private static final int SOAK_FLOWS = Integer.getInteger("roboclicker.soakFlows", 10);
+
+    @Test
+    @Tag("simulator")
+    @DisplayName("Advance to the next state only after clicking the expected element")
+    void testSimulatorReactsToClicks() {
+        LauncherSimulator simulator = new LauncherSimulator(new SimulatorSettings(
+            Config.SIMULATOR_WIDTH, Config.SIMULATOR_HEIGHT, 1.0, 0, 0, 0, 10, 7));
+
+        Rectangle wowTab = simulator.getElementBounds(2);
+        simulator.deliver(new InputAction(InputAction.Type.CLICK, wowTab.x + 1, wowTab.y + 1));
+        assertEquals(0, simulator.getState(), "Clicking a later element should not advance the flow");
+        assertEquals(1, simulator.getMissedClickCount());
+
+        for (int i = 0; i < 4; i++) {
+            Rectangle bounds = simulator.getElementBounds(i);
+            simulator.deliver(new InputAction(InputAction.Type.CLICK, (int) bounds.getCenterX(), (int) bounds.getCenterY()));
+        }
+        assertTrue(simulator.awaitFlowComplete(1000), "Flow should complete");
+        assertEquals(4, simulator.getState());
+
+        simulator.reset();
+        assertEquals(0, simulator.getState(), "Reset should restart the flow");
+    }
+
+    @Test
+    @Tag("simulator")
+    @DisplayName("Lay out each flow from the seed alone, however many frames were captured")
+    void testLayoutIndependentOfCaptures() {
+        SimulatorSettings settings = new SimulatorSettings(
+            Config.SIMULATOR_WIDTH, Config.SIMULATOR_HEIGHT, 1.0, 8, 20, 0, 30, 17);
+        LauncherSimulator idle = new LauncherSimulator(settings);
+        LauncherSimulator polled = new LauncherSimulator(settings);
+        for (int i = 0; i < 3; i++) {
+            polled.capture();
+        }
+        idle.reset();
+        polled.reset();
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(idle.getElementBounds(i), polled.getElementBounds(i), "Element " + i + " moved");
+        }
+        // Same layout: the frames differ only by their noise
+        BufferedImage a = idle.capture();
+        BufferedImage b = polled.capture();
+        int maxDifference = 0;
+        for (int y = 0; y < a.getHeight(); y++) {
+            for (int x = 0; x < a.getWidth(); x++) {
+                maxDifference = Math.max(maxDifference, Math.abs((a.getRGB(x, y) & 0xFF) - (b.getRGB(x, y) & 0xFF)));
+            }
+        }
+        assertTrue(maxDifference <= 16, "Distractors should not move: difference " + maxDifference);
+    }
+
+    @Test
+    @Tag("simulator")
+    @DisplayName("Run the MainPage flow against a resized, noisy launcher")
+    void testMainPageFlowOnScaledLauncher() {
+        LauncherSimulator simulator = new LauncherSimulator(new SimulatorSettings(
+            Config.SIMULATOR_WIDTH, Config.SIMULATOR_HEIGHT, 0.8, 8, 10, 40, 30, 11));
+        try (ImageMatcher imageMatcher = new ImageMatcher(Config.SIMULATOR_SIMILARITY, simulator, simulator)) {
+            MainPage mainPage = new MainPage(imageMatcher);
+
+            assertTrue(mainPage.clickGamesTab(), "Failed to click Games Tab");
+            assertTrue(mainPage.openVanguardPage(), "Failed to open Vanguard Page");
+            assertTrue(mainPage.openWoWTab(), "Failed to open WoW Tab");
+            assertTrue(mainPage.openConfigurationGear(), "Failed to open Configuration Gear");
+            assertTrue(mainPage.awaitPendingInput(), "Last click should be delivered");
+            assertTrue(simulator.awaitFlowComplete(1000), "Flow should complete");
+            assertEquals(0, simulator.getMissedClickCount(), "No click should miss");
+        }
+    }
+
+    @Test
+    @Tag("simulator")
+    @DisplayName("Open the n-th of several identical game tiles in reading order")
+    void testOpenGameTileInReadingOrder() {
+        // 2x2 grid: the third tile starts the second row, it is not the second tile of the first column
+        LauncherSimulator simulator = new LauncherSimulator(new SimulatorSettings(
+            Config.SCREEN_WIDTH, Config.SCREEN_HEIGHT, 1.0, 4, 0, 20, 20, 13, 2, 2, 3));
+        try (ImageMatcher imageMatcher = new ImageMatcher(Config.SIMULATOR_SIMILARITY, simulator, simulator)) {
+            MainPage mainPage = new MainPage(imageMatcher);
+            assertTrue(mainPage.clickGamesTab(), "Failed to click Games Tab");
+            assertTrue(simulator.awaitState(1, 1000), "Games grid should open");
+
+            assertFalse(mainPage.openGameTile(5), "The grid has only four tiles");
+            assertTrue(mainPage.openGameTile(2), "Failed to click the second tile");
+            assertTrue(mainPage.awaitPendingInput());
+            assertEquals(1, simulator.getState(), "The second tile is not the Vanguard tile");
+            assertEquals(1, simulator.getMissedClickCount());
+
+            assertTrue(mainPage.openGameTile(3), "Failed to click the third tile");
+            assertTrue(simulator.awaitState(2, 1000), "The third tile should open the Vanguard page");
+            assertEquals(1, simulator.getMissedClickCount(), "Only the second tile should have missed");
+        }
+    }
+
+    @Test
+    @Tag("simulator")
+    @Tag("soak")
+    @DisplayName("Soak the MainPage flow against the simulator")
+    void testSoakBenchmark() {
+        SoakReport report = new SoakBenchmark(SimulatorSettings.defaults()).run(SOAK_FLOWS);
+        logger.info("{}", report);
+
+        assertEquals(SOAK_FLOWS, report.getFlows());
+        assertEquals(0, report.getFailedFlows(), "Every flow should complete");
+        assertEquals(0, report.getMissedClicks(), "No click should miss");
+        assertTrue(report.getThroughputPerSecond() > 0);
+    }
+}
@@ -0,0 +1,172 @@
+package com.roboclicker;
+
+import com.roboclicker.logging.MatchEvent;
+import com.roboclicker.logging.MatchEventLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the asynchronous match event log.
+ */
+@DisplayName("Match Event Log Tests")
+public class MatchEventLogTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(MatchEventLogTest.class);
+    private MatchEventLog eventLog;
+
+    @AfterEach
+    void tearDown() {
+        if (eventLog != null) {
+            eventLog.close();
+        }
+    }
+
+    @Test
+    @Tag("logging")
+    @DisplayName("Deliver events in order with their fields")
+    void testEventsDeliveredInOrder() {
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        eventLog = new MatchEventLog(64, MatchEventLog.Mode.DETAILED,
+            event -> received.add(event.getSequence() + ":" + event.getKind() + ":" + event.getX()));
+
+        for (int i = 0; i < 200; i++) {
+            eventLog.publish(MatchEvent.Kind.MISSED, MatchEvent.Operation.FIND, "a.png", 0.7, i, 0, 0);
+            // Keep within the ring so nothing is dropped
+            if (i % 32 == 31) {
+                assertTrue(eventLog.flush(5000), "Writer should catch up");
+            }
+        }
+        assertTrue(eventLog.flush(5000), "Writer should catch up");
+
+        assertEquals(200, received.size(), "All events should be delivered");
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i + ":MISSED:" + i, received.get(i));
+        }
+        assertEquals(0, eventLog.getDroppedCount());
+    }
+
+    @Test
+    @Tag("logging")
+    @DisplayName("Accept events from many threads")
+    void testConcurrentProducers() throws InterruptedException {
+        List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+        eventLog = new MatchEventLog(1 << 16, MatchEventLog.Mode.DETAILED, event -> received.add(event.getX()));
+
+        int threads = 4;
+        int perThread = 5000;
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int base = t * perThread;
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    eventLog.publish(MatchEvent.Kind.MATCHED, MatchEvent.Operation.WAIT, "b.png", 0.8, base + i, 0, 0);
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        assertTrue(eventLog.flush(5000), "Writer should catch up");
+
+        assertEquals(threads * perThread, received.size() + eventLog.getDroppedCount());
+        assertEquals(threads * perThread, eventLog.getCount(MatchEvent.Kind.MATCHED));
+        assertEquals(threads * perThread, received.stream().distinct().count() + eventLog.getDroppedCount(),
+            "Every slot should be delivered exactly once");
+    }
+
+    @Test
+    @Tag("logging")
+    @DisplayName("Drop instead of blocking when the ring is full")
+    void testDropWhenFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        eventLog = new MatchEventLog(8, MatchEventLog.Mode.DETAILED, event -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        long start = System.nanoTime();
+        int accepted = 0;
+        for (int i = 0; i < 100; i++) {
+            if (eventLog.publish(MatchEvent.Kind.MISSED, MatchEvent.Operation.EXISTS, "c.png", 0.5, 0, 0, 0)) {
+                accepted++;
+            }
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        release.countDown();
+        logger.info("Accepted {} events, dropped {} in {} ms", accepted, eventLog.getDroppedCount(), elapsedMillis);
+
+        assertTrue(accepted <= 8, "No more events than ring slots should be accepted");
+        assertEquals(100 - accepted, eventLog.getDroppedCount());
+        assertTrue(elapsedMillis < 1000, "Publishing must not block on a stalled writer");
+    }
+
+    @Test
+    @Tag("logging")
+    @DisplayName("Summary mode keeps only lookup outcomes")
+    void testSummaryMode() {
+        List<MatchEvent.Kind> received = Collections.synchronizedList(new ArrayList<>());
+        eventLog = new MatchEventLog(64, MatchEventLog.Mode.SUMMARY, event -> received.add(event.getKind()));
+
+        eventLog.publish(MatchEvent.Kind.STARTED, MatchEvent.Operation.WAIT, "d.png", 0.8, 0, 0, 0);
+        eventLog.publish(MatchEvent.Kind.MISSED, MatchEvent.Operation.WAIT, "d.png", 0.8, 0, 0, 10);
+        eventLog.publish(MatchEvent.Kind.MATCHED, MatchEvent.Operation.WAIT, "d.png", 0.7, 5, 6, 20);
+        eventLog.publish(MatchEvent.Kind.NOT_FOUND, MatchEvent.Operation.FIND, "e.png", 0, 0, 0, 30);
+        assertTrue(eventLog.flush(5000), "Writer should catch up");
+
+        assertEquals(List.of(MatchEvent.Kind.MATCHED, MatchEvent.Kind.NOT_FOUND), received);
+        assertEquals(1, eventLog.getCount(MatchEvent.Kind.MISSED), "Filtered events should still be counted");
+    }
+
+    @Test
+    @Tag("logging")
+    @DisplayName("Park the idle writer and wake it on publish")
+    void testIdleWriterParks() throws InterruptedException {
+        CountDownLatch delivered = new CountDownLatch(1);
+        eventLog = new MatchEventLog(64, MatchEventLog.Mode.DETAILED, event -> delivered.countDown());
+
+        boolean parked = false;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!parked && System.nanoTime() < deadline) {
+            for (Thread thread : Thread.getAllStackTraces().keySet()) {
+                parked |= LockSupport.getBlocker(thread) == eventLog;
+            }
+            Thread.sleep(10);
+        }
+        assertTrue(parked, "Idle writer should park");
+
+        long start = System.nanoTime();
+        eventLog.publish(MatchEvent.Kind.MATCHED, MatchEvent.Operation.FIND, "f.png", 0.9, 1, 2, 0);
+        assertTrue(delivered.await(5, TimeUnit.SECONDS), "Event should be delivered");
+        long wakeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        logger.info("Parked writer delivered an event after {} ms", wakeMillis);
+        assertTrue(wakeMillis < 250, "Publishing should wake the parked writer");
+    }
+
+    @Test
+    @Tag("logging")
+    @DisplayName("Fall back to detailed logging for an unknown mode")
+    void testParseMode() {
+        assertEquals(MatchEventLog.Mode.SUMMARY, MatchEventLog.Mode.parse("summary"));
+        assertEquals(MatchEventLog.Mode.OFF, MatchEventLog.Mode.parse(" OFF "));
+        assertEquals(MatchEventLog.Mode.DETAILED, MatchEventLog.Mode.parse("verbose"));
+        assertEquals(MatchEventLog.Mode.DETAILED, MatchEventLog.Mode.parse(""));
+    }
+}
@@ -0,0 +1,116 @@
+package com.roboclicker;
+
+import com.roboclicker.farm.FarmReport;
+import com.roboclicker.farm.FarmScenario;
+import com.roboclicker.farm.FarmWorker;
+import com.roboclicker.farm.SessionFarm;
+import com.roboclicker.sim.SimulatorSettings;
+import com.roboclicker.sim.SoakReport;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the multi-process session farm.
+ * Workers drive synthetic launchers, so the farm runs headless.
+ */
+@DisplayName("Session Farm Tests")
+public class SessionFarmTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionFarmTest.class);
+
+    @Test
+    @Tag("farm")
+    @DisplayName("Answer coordinator commands with protocol replies")
+    void testWorkerProtocol() throws Exception {
+        FarmWorker worker = new FarmWorker(0, SimulatorSettings.defaults());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        worker.serve(new BufferedReader(new StringReader("RUN 7 VANGUARD_PAGE\nREPORT\nSTOP\nRUN 8 GAMES_TAB\n")),
+            new PrintStream(output, true, StandardCharsets.UTF_8.name()));
+
+        List<String> replies = new ArrayList<>();
+        for (String line : output.toString(StandardCharsets.UTF_8.name()).split("\\R")) {
+            if (line.startsWith("@farm ")) {
+                replies.add(line);
+            }
+        }
+        logger.info("Worker replies: {}", replies);
+        assertEquals(3, replies.size(), "Worker should stop reading commands after STOP");
+        assertTrue(replies.get(0).startsWith("@farm READY "));
+        String[] done = replies.get(1).split(" ");
+        assertEquals("DONE", done[1]);
+        assertEquals("7", done[2], "Reply should echo the scenario id");
+        assertEquals("true", done[3], "Scenario should succeed");
+        assertEquals(FarmScenario.VANGUARD_PAGE.getStepCount(), done[5].split(",").length,
+            "Reply should carry one latency per step");
+        assertTrue(replies.get(2).startsWith("@farm METRICS "));
+        assertTrue(replies.get(2).endsWith(" 0"), "No clicks should be missed");
+    }
+
+    @Test
+    @Tag("farm")
+    @DisplayName("Split the allowed CPUs into worker sets")
+    void testCpuSets() {
+        // A cgroup cpuset that does not start at CPU 0
+        List<Integer> allowed = SessionFarm.parseCpuList("4-7,12,14-15\n");
+        assertEquals(Arrays.asList(4, 5, 6, 7, 12, 14, 15), allowed);
+
+        List<List<Integer>> sets = SessionFarm.partitionCpus(allowed, 3);
+        List<String> lists = new ArrayList<>();
+        for (List<Integer> set : sets) {
+            lists.add(SessionFarm.formatCpuList(set));
+        }
+        logger.info("CPU sets: {}", lists);
+        assertEquals(Arrays.asList("4-6", "7,12", "14-15"), lists, "Sets should be disjoint and cover every CPU");
+
+        List<List<Integer>> shared = SessionFarm.partitionCpus(SessionFarm.parseCpuList("2-3"), 3);
+        assertEquals(Arrays.asList(Collections.singletonList(2), Collections.singletonList(3),
+            Collections.singletonList(2)), shared, "Extra workers should share CPUs round robin");
+
+        assertThrows(IllegalArgumentException.class, () -> SessionFarm.parseCpuList("3-1"));
+    }
+
+    @Test
+    @Tag("farm")
+    @DisplayName("Spread scenarios over worker processes and aggregate their metrics")
+    void testFarmRunsScenariosAcrossWorkers() {
+        List<FarmScenario> scenarios = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            scenarios.add(FarmScenario.values()[i % FarmScenario.values().length]);
+        }
+
+        FarmReport report;
+        try (SessionFarm farm = new SessionFarm(2)) {
+            report = farm.run(scenarios);
+        }
+        logger.info("{}", report);
+
+        SoakReport total = report.getTotal();
+        assertEquals(scenarios.size(), total.getFlows());
+        assertEquals(0, total.getFailedFlows(), "All scenarios should succeed");
+        assertEquals(0, total.getMissedClicks(), "No clicks should be missed");
+        assertEquals(2, report.getWorkerReports().size());
+        int perWorkerFlows = 0;
+        for (SoakReport worker : report.getWorkerReports()) {
+            assertTrue(worker.getFlows() > 0, "Every worker should receive scenarios");
+            perWorkerFlows += worker.getFlows();
+        }
+        assertEquals(total.getFlows(), perWorkerFlows, "Worker reports should add up to the total");
+        assertTrue(total.getStepLatencyPercentile(50) > 0);
+    }
+}
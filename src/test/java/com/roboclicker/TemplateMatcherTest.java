@@ -0,0 +1,314 @@
+package com.roboclicker;
+
+import com.roboclicker.config.Config;
+import com.roboclicker.input.InputAction;
+import com.roboclicker.sim.LauncherSimulator;
+import com.roboclicker.sim.SimulatorSettings;
+import com.roboclicker.util.FeatureMatcher;
+import com.roboclicker.util.ImageMatcher;
+import com.roboclicker.util.MatchResult;
+import com.roboclicker.util.TemplateMatcher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.RescaleOp;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for top-K multi-occurrence search with non-maximum suppression
+ * and for absence proofs from score bounds.
+ * Renders a grid of thumbnails into an in-memory scene, so it runs headless.
+ */
+@DisplayName("Template Matcher Tests")
+public class TemplateMatcherTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(TemplateMatcherTest.class);
+    private static final int COLUMNS = 3;
+    private static final int ROWS = 2;
+    private static final int GAP = 12;
+    private static final int ORIGIN_X = 40;
+    private static final int ORIGIN_Y = 30;
+
+    private TemplateMatcher templateMatcher;
+    private BufferedImage thumbnail;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        logger.info("Setting up test environment");
+        templateMatcher = new TemplateMatcher();
+        thumbnail = ImageIO.read(new File(Config.BUTTON_IMAGE_2));
+
+        assertTrue(Config.imagesDirectoryExists(),
+            "Images directory does not exist: " + Config.IMAGES_DIR);
+    }
+
+    @Test
+    @Tag("top-k")
+    @DisplayName("Find every tile of a grid of identical thumbnails")
+    void testFindAllGridTiles() {
+        BufferedImage scene = renderGrid(thumbnail);
+
+        long start = System.nanoTime();
+        List<MatchResult> matches = templateMatcher.findTopK(Config.BUTTON_IMAGE_2, 1.0, scene, 10, 0.9);
+        logger.info("Top-K search took {} ms: {}", (System.nanoTime() - start) / 1_000_000, matches);
+
+        assertEquals(COLUMNS * ROWS, matches.size(), "Every tile should be found once");
+        Set<String> positions = new HashSet<>();
+        for (MatchResult match : matches) {
+            assertTrue(match.getScore() > 0.99, "Exact copies should score ~1.0: " + match);
+            assertEquals(0, (match.getX() - ORIGIN_X) % (thumbnail.getWidth() + GAP), "Tile X misaligned: " + match);
+            assertEquals(0, (match.getY() - ORIGIN_Y) % (thumbnail.getHeight() + GAP), "Tile Y misaligned: " + match);
+            assertEquals(thumbnail.getWidth(), match.getWidth());
+            assertEquals(thumbnail.getHeight(), match.getHeight());
+            positions.add(match.getX() + "," + match.getY());
+        }
+        assertEquals(COLUMNS * ROWS, positions.size(), "Matches should not overlap");
+    }
+
+    @Test
+    @Tag("top-k")
+    @DisplayName("Limit results to k and rank by score")
+    void testRankingAndLimit() {
+        BufferedImage scene = renderGrid(thumbnail);
+        // Dim the last tile so it becomes the weakest near-match
+        BufferedImage dimmed = new RescaleOp(0.6f, 40f, null).filter(thumbnail, null);
+        Graphics2D g = scene.createGraphics();
+        g.drawImage(dimmed, tileX(COLUMNS - 1), tileY(ROWS - 1), null);
+        g.dispose();
+
+        List<MatchResult> matches = templateMatcher.findTopK(thumbnail, scene, 3, 0.5);
+
+        assertEquals(3, matches.size(), "Only k matches should be returned");
+        for (int i = 1; i < matches.size(); i++) {
+            assertTrue(matches.get(i - 1).getScore() >= matches.get(i).getScore(), "Matches should be ranked");
+        }
+        List<MatchResult> all = templateMatcher.findTopK(thumbnail, scene, 10, 0.5);
+        MatchResult weakest = all.get(all.size() - 1);
+        assertEquals(tileX(COLUMNS - 1), weakest.getX(), "Dimmed tile should rank last");
+        assertEquals(tileY(ROWS - 1), weakest.getY(), "Dimmed tile should rank last");
+    }
+
+    @Test
+    @Tag("top-k")
+    @DisplayName("Return nothing below the minimum score")
+    void testMinScore() throws IOException {
+        BufferedImage scene = renderGrid(thumbnail);
+        BufferedImage other = ImageIO.read(new File(Config.BUTTON_IMAGE_3));
+
+        assertTrue(templateMatcher.findTopK(other, scene, 5, 0.9).isEmpty(),
+            "Absent template should not be reported");
+    }
+
+    @Test
+    @Tag("absence")
+    @DisplayName("Prove an image absent from score bounds alone")
+    void testProveAbsent() {
+        BufferedImage scene = renderGrid(thumbnail);
+
+        // The grid is detail almost everywhere the button fits, so give the proof time to finish
+        long start = System.nanoTime();
+        boolean absent = templateMatcher.proveAbsent(Config.BUTTON_IMAGE_3, 1.0, scene, 0.8, 10_000);
+        logger.info("Absence proof took {} ms: {} positions bounded, {} scored exactly",
+            (System.nanoTime() - start) / 1_000_000, templateMatcher.getBoundedPositionCount(),
+            templateMatcher.getScoredPositionCount());
+
+        assertTrue(absent, "Image not in the scene should be proven absent");
+        assertFalse(templateMatcher.proveAbsent(Config.BUTTON_IMAGE_2, 1.0, scene, 0.9),
+            "Image in the scene must never be proven absent");
+        assertEquals(2, templateMatcher.getAbsenceCheckCount());
+        assertEquals(1, templateMatcher.getAbsenceProofCount());
+        assertTrue(templateMatcher.getBoundedPositionCount() > 100 * templateMatcher.getScoredPositionCount(),
+            "Bounds should decide almost every position");
+        assertFalse(templateMatcher.proveAbsent(Config.BUTTON_IMAGE_3, 1.0, scene, 0.8, 0),
+            "A proof out of time must not count as absence");
+    }
+
+    @Test
+    @Tag("absence")
+    @DisplayName("Never prove a flat template absent")
+    void testFlatTemplateIsNotProvenAbsent(@TempDir Path tempDir) throws IOException {
+        // A plain red swatch has no grayscale detail, but SikuliX still matches it by color
+        BufferedImage swatch = new BufferedImage(40, 24, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = swatch.createGraphics();
+        g.setColor(new Color(200, 30, 30));
+        g.fillRect(0, 0, swatch.getWidth(), swatch.getHeight());
+        g.dispose();
+        File swatchFile = tempDir.resolve("swatch.png").toFile();
+        ImageIO.write(swatch, "png", swatchFile);
+
+        BufferedImage scene = renderGrid(thumbnail);
+        g = scene.createGraphics();
+        g.drawImage(swatch, 2, 2, null);
+        g.dispose();
+
+        assertFalse(templateMatcher.proveAbsent(swatchFile.getPath(), 1.0, scene, 0.9),
+            "A flat template must fall through to the similarity tiers");
+        assertEquals(1, templateMatcher.getAbsenceCheckCount());
+        assertEquals(0, templateMatcher.getAbsenceProofCount());
+    }
+
+    @Test
+    @Tag("absence")
+    @DisplayName("Prove absence only above the best exact score")
+    void testAbsenceProofIsSound() {
+        int width = thumbnail.getWidth() * 3;
+        int height = thumbnail.getHeight() * 2;
+        BufferedImage scene = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scene.createGraphics();
+        g.setColor(new Color(20, 22, 28));
+        g.fillRect(0, 0, width, height);
+        g.drawImage(new RescaleOp(0.6f, 40f, null).filter(thumbnail, null), 70, 50, null);
+        g.dispose();
+        addNoise(scene, 12);
+
+        List<MatchResult> best = templateMatcher.findTopK(Config.BUTTON_IMAGE_2, 1.0, scene, 1, 0.3);
+        assertEquals(1, best.size(), "Dimmed thumbnail should be found");
+        double score = best.get(0).getScore();
+
+        assertFalse(templateMatcher.proveAbsent(Config.BUTTON_IMAGE_2, 1.0, scene, score - 0.01),
+            "A threshold the best position reaches must not be proven unreachable");
+        assertTrue(templateMatcher.proveAbsent(Config.BUTTON_IMAGE_2, 1.0, scene, Math.min(1.0, score + 0.05), 10_000),
+            "A threshold above the best score should be proven unreachable");
+    }
+
+    @Test
+    @Tag("absence")
+    @DisplayName("Prove an image absent from a cluttered 1080p frame while scoring almost no position")
+    void testProveAbsentOnClutteredFrame() {
+        // Launcher start page: only the first button is shown, among 60 distractor shapes
+        LauncherSimulator simulator = new LauncherSimulator(
+            new SimulatorSettings(1920, 1080, 1.0, 0, 12, 0, 60, Config.SIMULATOR_SEED));
+        BufferedImage frame = simulator.capture();
+        double[] similarityLevels = {0.9, 0.7, 0.6, 0.5};
+        double threshold = similarityLevels[similarityLevels.length - 1] - Config.ABSENCE_PROOF_MARGIN;
+
+        FeatureMatcher featureMatcher = new FeatureMatcher();
+
+        // Timings are only logged; warm up both paths so they compare compiled code, then keep
+        // the best of a few runs
+        long proofNanos = Long.MAX_VALUE;
+        long tierNanos = Long.MAX_VALUE;
+        boolean absent = false;
+        for (int run = 0; run < 15; run++) {
+            long start = System.nanoTime();
+            absent = templateMatcher.proveAbsent(Config.BUTTON_IMAGE_2, 1.0, frame, threshold, 10_000);
+            long elapsed = System.nanoTime() - start;
+            proofNanos = run < 10 ? proofNanos : Math.min(proofNanos, elapsed);
+
+            // Headless stand-in for what a proven absence skips: the keypoint pass that learns the
+            // scale, then one search of the frame per similarity level. The real tiers search at
+            // full resolution, so this understates them.
+            start = System.nanoTime();
+            featureMatcher.match(Config.BUTTON_IMAGE_2, frame);
+            for (double similarity : similarityLevels) {
+                assertTrue(templateMatcher.findTopK(Config.BUTTON_IMAGE_2, 1.0, frame, 1, similarity).isEmpty(),
+                    "Thumbnail is not on the start page");
+            }
+            elapsed = System.nanoTime() - start;
+            tierNanos = run < 10 ? tierNanos : Math.min(tierNanos, elapsed);
+        }
+        TemplateMatcher stats = new TemplateMatcher();
+        stats.proveAbsent(Config.BUTTON_IMAGE_2, 1.0, frame, threshold, 10_000);
+        logger.info("Absence proof took {} ms: {} positions bounded in {} regions, {} scored exactly",
+            proofNanos / 1_000_000, stats.getBoundedPositionCount(), stats.getPrunedRegionCount(),
+            stats.getScoredPositionCount());
+        logger.info("Keypoint pass and similarity tiers took {} ms", tierNanos / 1_000_000);
+
+        // A full scan scores every position exactly; the proof must bound all but a handful
+        long positions = (long) (frame.getWidth() - thumbnail.getWidth() + 1)
+            * (frame.getHeight() - thumbnail.getHeight() + 1);
+        assertTrue(absent, "Thumbnail should be proven absent from the start page");
+        assertEquals(positions, stats.getBoundedPositionCount() + stats.getScoredPositionCount(),
+            "Every position should be either bounded or scored");
+        assertTrue(stats.getScoredPositionCount() * 1000 < positions,
+            "Only " + stats.getScoredPositionCount() + " of " + positions + " positions should need a score");
+        assertTrue(stats.getPrunedRegionCount() > 0 && stats.getPrunedRegionCount() * 100 < positions,
+            "Region bounds should rule out positions a square at a time");
+
+        // Round buttons do resemble the oval distractors, so their proof must stop at a real match
+        assertFalse(stats.proveAbsent(Config.BUTTON_IMAGE_4, 1.0, frame, threshold, 10_000),
+            "An image some position scores above the threshold must not be proven absent");
+    }
+
+    @Test
+    @Tag("absence")
+    @DisplayName("Learn the scale of a resized element before trying to prove it absent")
+    void testResizedElementIsNotProvenAbsent() {
+        for (double scale : new double[] {0.8, 0.7, 0.6}) {
+            LauncherSimulator simulator = new LauncherSimulator(new SimulatorSettings(
+                Config.SIMULATOR_WIDTH, Config.SIMULATOR_HEIGHT, scale, 0, 0, 0, 20, Config.SIMULATOR_SEED));
+            Rectangle gamesTab = simulator.getElementBounds(0);
+            simulator.deliver(new InputAction(InputAction.Type.CLICK,
+                (int) gamesTab.getCenterX(), (int) gamesTab.getCenterY()));
+            assertTrue(simulator.awaitState(1, 1000), "Games grid should open");
+
+            try (ImageMatcher imageMatcher = new ImageMatcher(Config.SIMULATOR_SIMILARITY, simulator, simulator)) {
+                // At the unscaled size the thumbnail matches nowhere, which a proof run first would report
+                assertTrue(imageMatcher.getTemplateMatcher().proveAbsent(Config.BUTTON_IMAGE_2, 1.0,
+                    simulator.capture(), 0.45, 10_000), "Unscaled thumbnail should be absent at " + scale);
+
+                assertTrue(imageMatcher.imageExists(Config.BUTTON_IMAGE_2),
+                    "Thumbnail drawn at " + scale + " should be found");
+                assertEquals(scale, imageMatcher.getTemplateScale(Config.BUTTON_IMAGE_2), 0.05,
+                    "Keypoint pass should learn the scale");
+                assertFalse(imageMatcher.imageExists(Config.BUTTON_IMAGE_4), "Gear is not on the games grid");
+            }
+        }
+    }
+
+    private static void addNoise(BufferedImage image, int amplitude) {
+        Random random = new Random(3);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int p = image.getRGB(x, y);
+                int noise = random.nextInt(2 * amplitude + 1) - amplitude;
+                int r = Math.max(0, Math.min(255, ((p >> 16) & 0xFF) + noise));
+                int gr = Math.max(0, Math.min(255, ((p >> 8) & 0xFF) + noise));
+                int b = Math.max(0, Math.min(255, (p & 0xFF) + noise));
+                image.setRGB(x, y, (r << 16) | (gr << 8) | b);
+            }
+        }
+    }
+
+    private BufferedImage renderGrid(BufferedImage tile) {
+        int width = ORIGIN_X * 2 + COLUMNS * (tile.getWidth() + GAP);
+        int height = ORIGIN_Y * 2 + ROWS * (tile.getHeight() + GAP);
+        BufferedImage scene = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scene.createGraphics();
+        g.setColor(new Color(20, 22, 28));
+        g.fillRect(0, 0, width, height);
+        for (int row = 0; row < ROWS; row++) {
+            for (int col = 0; col < COLUMNS; col++) {
+                g.drawImage(tile, tileX(col), tileY(row), null);
+            }
+        }
+        g.dispose();
+        return scene;
+    }
+
+    private int tileX(int column) {
+        return ORIGIN_X + column * (thumbnail.getWidth() + GAP);
+    }
+
+    private int tileY(int row) {
+        return ORIGIN_Y + row * (thumbnail.getHeight() + GAP);
+    }
+}